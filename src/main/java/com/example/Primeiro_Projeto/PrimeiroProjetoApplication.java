@@ -3,9 +3,10 @@ package com.example.Primeiro_Projeto;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 
 @SpringBootApplication
-@EnableCaching
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class PrimeiroProjetoApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,134 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Configuration
+@EnableConfigurationProperties(CacheSpecProperties.class)
+public class CacheConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+
+    public static final List<String> CACHE_NAMES = List.of(
+            "allUsers", "usersPage", "user",
+            "allProducts", "productsPage", "productId", "productName",
+            SerializedResponseCache.CACHE_NAME
+    );
+
+    public static final Set<String> CATALOG_CACHE_NAMES = Set.of(
+            "allProducts", "productsPage", "productId", "productName"
+    );
+
+    @Bean
+    public CacheManager cacheManager(
+            CacheSpecProperties properties,
+            ObjectProvider<CacheRefreshLoader> refreshLoaders,
+            CatalogGeneration catalogGeneration,
+            CacheDependencyIndex dependencyIndex,
+            CacheRefreshExecutor refreshExecutor,
+            ObjectProvider<Ticker> tickers
+    ) {
+        Map<String, CacheRefreshLoader> loadersByCache = refreshLoaders.orderedStream()
+                .collect(Collectors.toMap(CacheRefreshLoader::cacheName, Function.identity()));
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                Runnable onInvalidate = CATALOG_CACHE_NAMES.contains(name) ? catalogGeneration::advance : () -> {};
+                return new CoalescingCache(
+                        super.adaptCaffeineCache(name, cache),
+                        cache,
+                        dependencyIndex,
+                        onInvalidate,
+                        properties.getSpec(name).getMaxStaleness(),
+                        refreshExecutor::execute
+                );
+            }
+        };
+        Ticker ticker = tickers.getIfAvailable(Ticker::systemTicker);
+        cacheManager.setCaffeine(newBuilder("defaults", properties.getDefaults(), ticker));
+
+        for(String cacheName : CACHE_NAMES) {
+            CacheSpecProperties.Spec spec = properties.getSpec(cacheName);
+            Caffeine<Object, Object> builder = newBuilder(cacheName, spec, ticker)
+                    .evictionListener((key, value, cause) -> dependencyIndex.forget(cacheName, key));
+            CacheRefreshLoader loader = loadersByCache.get(cacheName);
+
+            if(spec.getRefreshAfterWrite() != null && loader != null) {
+                builder.refreshAfterWrite(spec.getRefreshAfterWrite())
+                        .executor(refreshExecutor::execute);
+                cacheManager.registerCustomCache(cacheName, builder.build(loader::load));
+            } else {
+                if(spec.getRefreshAfterWrite() != null) {
+                    log.warn("Cache {} sem loader registrado, refreshAfterWrite ignorado", cacheName);
+                }
+                cacheManager.registerCustomCache(cacheName, builder.build());
+            }
+        }
+
+        return cacheManager;
+    }
+
+    @Bean
+    public CoalescingCacheMeterBinderProvider coalescingCacheMeterBinderProvider() {
+        return new CoalescingCacheMeterBinderProvider();
+    }
+
+    private static Caffeine<Object, Object> newBuilder(String cacheName, CacheSpecProperties.Spec spec, Ticker ticker) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats().ticker(ticker);
+
+        if(spec.getMaximumWeight() != null) {
+            long maximumWeight = spec.getMaximumWeight();
+            builder.maximumWeight(maximumWeight)
+                    .weigher((key, value) -> weighWithinLimit(cacheName, maximumWeight, value));
+        } else if(spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+
+        if(spec.getExpireAfterWrite() != null) {
+            Duration maxStaleness = spec.getMaxStaleness() != null ? spec.getMaxStaleness() : Duration.ZERO;
+            builder.expireAfterWrite(spec.getExpireAfterWrite().plus(maxStaleness));
+        }
+
+        return builder;
+    }
+
+    private static int weighWithinLimit(String cacheName, long maximumWeight, Object value) {
+        int weight = weigh(value);
+        if(weight > maximumWeight) {
+            log.warn("Valor do cache {} com peso {} excede maximum-weight {} e não será mantido em cache", cacheName, weight, maximumWeight);
+        }
+        return weight;
+    }
+
+    static int weigh(Object value) {
+        if(value instanceof SerializedResponseCache.SerializedResponse response) {
+            return Math.max(response.size() >>> 10, 1);
+        }
+        if(value instanceof Collection<?> collection) {
+            return Math.max(collection.size(), 1);
+        }
+        if(value instanceof Slice<?> slice) {
+            return Math.max(slice.getNumberOfElements(), 1);
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
+import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CacheDependencyIndex {
+
+    private final Map<Dependency, Set<Entry>> entriesByDependency = new ConcurrentHashMap<>();
+    private final Map<Entry, Set<Dependency>> dependenciesByEntry = new ConcurrentHashMap<>();
+    private final Map<Dependency, Long> detachedAt = new ConcurrentHashMap<>();
+    private final AtomicLong detachSequence = new AtomicLong();
+
+    public void record(String cacheName, Object key, Object value) {
+        Set<Dependency> dependencies = dependenciesOf(value);
+        if(dependencies.isEmpty()) {
+            return;
+        }
+
+        Entry entry = new Entry(cacheName, key);
+        dependenciesByEntry.merge(entry, dependencies, (current, added) -> {
+            Set<Dependency> merged = new HashSet<>(current);
+            merged.addAll(added);
+            return merged;
+        });
+        for(Dependency dependency : dependencies) {
+            entriesByDependency.compute(dependency, (d, entries) -> {
+                Set<Entry> updated = entries != null ? entries : ConcurrentHashMap.newKeySet();
+                updated.add(entry);
+                return updated;
+            });
+        }
+    }
+
+    public void forget(String cacheName, Object key) {
+        Entry entry = new Entry(cacheName, key);
+        Set<Dependency> dependencies = dependenciesByEntry.remove(entry);
+        if(dependencies == null) {
+            return;
+        }
+
+        for(Dependency dependency : dependencies) {
+            entriesByDependency.computeIfPresent(dependency, (d, entries) -> {
+                entries.remove(entry);
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+    }
+
+    public void forgetAll(String cacheName) {
+        for(Entry entry : List.copyOf(dependenciesByEntry.keySet())) {
+            if(entry.cacheName().equals(cacheName)) {
+                forget(entry.cacheName(), entry.key());
+            }
+        }
+    }
+
+    public Set<Entry> detach(Dependency dependency) {
+        detachedAt.put(dependency, detachSequence.incrementAndGet());
+        Set<Entry> entries = entriesByDependency.remove(dependency);
+        return entries != null ? Set.copyOf(entries) : Set.of();
+    }
+
+    public long stamp() {
+        return detachSequence.get();
+    }
+
+    public boolean detachedSince(long stamp, Object value) {
+        if(detachSequence.get() == stamp) {
+            return false;
+        }
+        for(Dependency dependency : dependenciesOf(value)) {
+            Long detached = detachedAt.get(dependency);
+            if(detached != null && detached > stamp) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Set<Entry> entriesOf(Dependency dependency) {
+        Set<Entry> entries = entriesByDependency.get(dependency);
+        return entries != null ? Set.copyOf(entries) : Set.of();
+    }
+
+    public int size() {
+        return dependenciesByEntry.size();
+    }
+
+    private static Set<Dependency> dependenciesOf(Object value) {
+        Set<Dependency> dependencies = new HashSet<>();
+        if(value instanceof Collection<?> collection) {
+            collection.forEach(element -> addEntity(dependencies, element));
+        } else {
+            addEntity(dependencies, value);
+        }
+        return dependencies;
+    }
+
+    private static void addEntity(Set<Dependency> dependencies, Object value) {
+        if(value instanceof ProductResponseDTO product) {
+            dependencies.add(Dependency.product(product.getId()));
+        } else if(value instanceof UserResponseDTO user) {
+            dependencies.add(Dependency.user(user.getId()));
+        }
+    }
+
+    public record Entry(String cacheName, Object key) {
+    }
+
+    public record Dependency(String type, Object value) {
+
+        public static Dependency product(Long id) {
+            return new Dependency("product", id);
+        }
+
+        public static Dependency user(Long id) {
+            return new Dependency("user", id);
+        }
+    }
+}
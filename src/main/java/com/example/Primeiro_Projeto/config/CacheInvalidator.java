@@ -0,0 +1,131 @@
+package com.example.Primeiro_Projeto.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+public class CacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidator.class);
+
+    public static final String PRODUCT_ID_CACHE = "productId";
+    public static final String USER_ID_CACHE = "user";
+    public static final String PRODUCT_LIST_CACHE = "allProducts";
+    public static final String USER_LIST_CACHE = "allUsers";
+
+    private final CacheManager cacheManager;
+    private final CacheDependencyIndex dependencyIndex;
+    private final PageCacheGenerations pageCacheGenerations;
+
+    public CacheInvalidator(CacheManager cacheManager, CacheDependencyIndex dependencyIndex, PageCacheGenerations pageCacheGenerations) {
+        this.cacheManager = cacheManager;
+        this.dependencyIndex = dependencyIndex;
+        this.pageCacheGenerations = pageCacheGenerations;
+    }
+
+    public void productsChanged(Collection<Long> ids) {
+        List<Long> changed = List.copyOf(ids);
+        if(changed.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            evictChanged(PRODUCT_ID_CACHE, PRODUCT_LIST_CACHE, CacheDependencyIndex.Dependency::product, changed);
+            pageCacheGenerations.advance(PageCacheGenerations.PRODUCTS);
+        });
+    }
+
+    public void productsAdded() {
+        afterCommit(() -> {
+            clear(PRODUCT_LIST_CACHE);
+            pageCacheGenerations.advance(PageCacheGenerations.PRODUCTS);
+        });
+    }
+
+    public void productsRemoved(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> {
+            evictChanged(PRODUCT_ID_CACHE, PRODUCT_LIST_CACHE, CacheDependencyIndex.Dependency::product, removed);
+            pageCacheGenerations.advance(PageCacheGenerations.PRODUCTS);
+        });
+    }
+
+    public void usersChanged(Collection<Long> ids) {
+        List<Long> changed = List.copyOf(ids);
+        if(changed.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            evictChanged(USER_ID_CACHE, USER_LIST_CACHE, CacheDependencyIndex.Dependency::user, changed);
+            pageCacheGenerations.advance(PageCacheGenerations.USERS);
+        });
+    }
+
+    public void usersAdded() {
+        afterCommit(() -> {
+            clear(USER_LIST_CACHE);
+            pageCacheGenerations.advance(PageCacheGenerations.USERS);
+        });
+    }
+
+    public void usersRemoved(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> {
+            evictChanged(USER_ID_CACHE, USER_LIST_CACHE, CacheDependencyIndex.Dependency::user, removed);
+            pageCacheGenerations.advance(PageCacheGenerations.USERS);
+        });
+    }
+
+    private void evictChanged(
+            String idCacheName,
+            String listCacheName,
+            Function<Long, CacheDependencyIndex.Dependency> entity,
+            List<Long> ids
+    ) {
+        int evicted = 0;
+        for(Long id : ids) {
+            for(CacheDependencyIndex.Entry entry : dependencyIndex.detach(entity.apply(id))) {
+                Cache cache = cacheManager.getCache(entry.cacheName());
+                if(cache != null) {
+                    cache.evict(entry.key());
+                    evicted++;
+                }
+            }
+        }
+
+        Cache idCache = cacheManager.getCache(idCacheName);
+        if(idCache != null) {
+            ids.forEach(idCache::evict);
+        }
+        clear(listCacheName);
+        log.debug("Invalidação de cache: {} entradas removidas para ids {}", evicted, ids);
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if(cache != null) {
+            cache.clear();
+        }
+    }
+
+    private static void afterCommit(Runnable invalidation) {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        } else {
+            invalidation.run();
+        }
+    }
+}
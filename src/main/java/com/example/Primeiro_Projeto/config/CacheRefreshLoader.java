@@ -0,0 +1,8 @@
+package com.example.Primeiro_Projeto.config;
+
+public interface CacheRefreshLoader {
+
+    String cacheName();
+
+    Object load(Object key);
+}
@@ -0,0 +1,40 @@
+package com.example.Primeiro_Projeto.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheSpecProperties {
+
+    private Spec defaults = new Spec();
+    private Map<String, Spec> specs = new HashMap<>();
+
+    public Spec getSpec(String cacheName) {
+        Spec spec = specs.get(cacheName);
+        if(spec == null) {
+            return defaults;
+        }
+
+        Spec merged = new Spec();
+        merged.setMaximumSize(spec.getMaximumSize() != null ? spec.getMaximumSize() : defaults.getMaximumSize());
+        merged.setMaximumWeight(spec.getMaximumWeight() != null ? spec.getMaximumWeight() : defaults.getMaximumWeight());
+        merged.setExpireAfterWrite(spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : defaults.getExpireAfterWrite());
+        merged.setRefreshAfterWrite(spec.getRefreshAfterWrite() != null ? spec.getRefreshAfterWrite() : defaults.getRefreshAfterWrite());
+        merged.setMaxStaleness(spec.getMaxStaleness() != null ? spec.getMaxStaleness() : defaults.getMaxStaleness());
+        return merged;
+    }
+
+    @Data
+    public static class Spec {
+        private Long maximumSize;
+        private Long maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration refreshAfterWrite;
+        private Duration maxStaleness;
+    }
+}
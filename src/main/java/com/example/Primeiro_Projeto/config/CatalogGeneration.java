@@ -0,0 +1,67 @@
+package com.example.Primeiro_Projeto.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CatalogGeneration {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong generation = new AtomicLong();
+
+    public long current() {
+        return generation.get();
+    }
+
+    public void bump() {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance();
+                }
+            });
+        } else {
+            advance();
+        }
+    }
+
+    public void advance() {
+        generation.incrementAndGet();
+    }
+
+    public String etag(long generation) {
+        return "\"" + epoch + "." + generation + "\"";
+    }
+
+    public String etag(long generation, Long version) {
+        return "\"" + epoch + "." + generation + "." + (version != null ? version : 0) + "\"";
+    }
+
+    public static String forEncoding(String etag, boolean gzip) {
+        return gzip ? etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"" : etag;
+    }
+
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if(ifNoneMatch == null) {
+            return false;
+        }
+
+        String gzipEtag = forEncoding(etag, true);
+        for(String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if(tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if(tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CoalescingCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingCache.class);
+
+    private final Cache delegate;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache;
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedWaiters = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder failedRefreshes = new LongAdder();
+    private final CacheDependencyIndex dependencyIndex;
+    private final Runnable onInvalidate;
+    private final Policy.FixedExpiration<Object, Object> expiration;
+    private final long freshNanos;
+    private final Executor refreshExecutor;
+    private final boolean selfRefreshing;
+
+    public CoalescingCache(Cache delegate, com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache) {
+        this(delegate, nativeCache, new CacheDependencyIndex(), () -> {}, null, Runnable::run);
+    }
+
+    public CoalescingCache(
+            Cache delegate,
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache,
+            CacheDependencyIndex dependencyIndex,
+            Runnable onInvalidate,
+            Duration maxStaleness,
+            Executor refreshExecutor
+    ) {
+        this.delegate = delegate;
+        this.nativeCache = nativeCache;
+        this.dependencyIndex = dependencyIndex;
+        this.onInvalidate = onInvalidate;
+        this.expiration = maxStaleness != null ? nativeCache.policy().expireAfterWrite().orElse(null) : null;
+        this.freshNanos = expiration != null
+                ? Math.max(expiration.getExpiresAfter(TimeUnit.NANOSECONDS) - maxStaleness.toNanos(), 0)
+                : Long.MAX_VALUE;
+        this.refreshExecutor = refreshExecutor;
+        this.selfRefreshing = nativeCache instanceof LoadingCache<?, ?> && nativeCache.policy().refreshAfterWrite().isPresent();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return nativeCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object stored = nativeCache.getIfPresent(key);
+        if(stored != null) {
+            revalidateIfStale(key, valueLoader);
+            return fromStoreValue(stored);
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, load);
+        if(running != null) {
+            coalescedWaiters.increment();
+            return fromStoreValue(await(key, valueLoader, running));
+        }
+
+        try {
+            stored = nativeCache.getIfPresent(key);
+            if(stored == null) {
+                loads.increment();
+                long stamp = dependencyIndex.stamp();
+                stored = store(key, valueLoader.call(), load, stamp);
+            }
+            load.complete(stored);
+            return fromStoreValue(stored);
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        dependencyIndex.record(getName(), key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if(existing == null) {
+            dependencyIndex.record(getName(), key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        inFlight.remove(key);
+        dependencyIndex.forget(getName(), key);
+        delegate.evict(key);
+        onInvalidate.run();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        inFlight.remove(key);
+        dependencyIndex.forget(getName(), key);
+        boolean evicted = delegate.evictIfPresent(key);
+        onInvalidate.run();
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        inFlight.clear();
+        dependencyIndex.forgetAll(getName());
+        delegate.clear();
+        onInvalidate.run();
+    }
+
+    @Override
+    public boolean invalidate() {
+        inFlight.clear();
+        dependencyIndex.forgetAll(getName());
+        boolean invalidated = delegate.invalidate();
+        onInvalidate.run();
+        return invalidated;
+    }
+
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    public long getFailedRefreshes() {
+        return failedRefreshes.sum();
+    }
+
+    public long getCoalescedWaiters() {
+        return coalescedWaiters.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public int getInFlightKeys() {
+        return inFlight.size();
+    }
+
+    private void revalidateIfStale(Object key, Callable<?> valueLoader) {
+        if(expiration == null) {
+            return;
+        }
+        OptionalLong age = expiration.ageOf(key, TimeUnit.NANOSECONDS);
+        if(age.isEmpty() || age.getAsLong() <= freshNanos) {
+            return;
+        }
+
+        staleHits.increment();
+        StaleReads.record(Duration.ofNanos(age.getAsLong() - freshNanos));
+        if(selfRefreshing) {
+            return;
+        }
+
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if(inFlight.putIfAbsent(key, refresh) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, valueLoader, refresh));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, refresh);
+            refresh.completeExceptionally(e);
+        }
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader, CompletableFuture<Object> refresh) {
+        try {
+            loads.increment();
+            long stamp = dependencyIndex.stamp();
+            refresh.complete(store(key, valueLoader.call(), refresh, stamp));
+        } catch (Exception e) {
+            failedRefreshes.increment();
+            log.warn("Falha ao revalidar {} no cache {}, mantendo valor antigo: {}", key, getName(), e.getMessage());
+            refresh.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, refresh);
+        }
+    }
+
+    private Object store(Object key, Object value, CompletableFuture<Object> load, long stamp) {
+        Object stored = value == null ? NullValue.INSTANCE : value;
+        inFlight.computeIfPresent(key, (k, current) -> {
+            if(current == load) {
+                nativeCache.put(k, stored);
+                dependencyIndex.record(getName(), k, stored);
+            }
+            return current;
+        });
+        if(dependencyIndex.detachedSince(stamp, stored) && nativeCache.asMap().remove(key, stored)) {
+            dependencyIndex.forget(getName(), key);
+        }
+        return stored;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T fromStoreValue(Object stored) {
+        return stored == NullValue.INSTANCE ? null : (T) stored;
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+}
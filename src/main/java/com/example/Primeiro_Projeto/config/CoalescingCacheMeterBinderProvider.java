@@ -0,0 +1,52 @@
+package com.example.Primeiro_Projeto.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+public class CoalescingCacheMeterBinderProvider implements CacheMeterBinderProvider<CoalescingCache> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MeterBinder getMeterBinder(CoalescingCache cache, Iterable<Tag> tags) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+
+        return registry -> {
+            new CaffeineCacheMetrics<>(nativeCache, cache.getName(), tags).bindTo(registry);
+
+            FunctionCounter.builder("cache.coalesced.waiters", cache, CoalescingCache::getCoalescedWaiters)
+                    .tags(tags)
+                    .tag("cache", cache.getName())
+                    .description("Requests that waited on a load already in flight for the same key")
+                    .register(registry);
+
+            FunctionCounter.builder("cache.coalesced.loads", cache, CoalescingCache::getLoads)
+                    .tags(tags)
+                    .tag("cache", cache.getName())
+                    .description("Loads executed after a cache miss")
+                    .register(registry);
+
+            FunctionCounter.builder("cache.stale.hits", cache, CoalescingCache::getStaleHits)
+                    .tags(tags)
+                    .tag("cache", cache.getName())
+                    .description("Reads answered with an expired entry while it was revalidated")
+                    .register(registry);
+
+            FunctionCounter.builder("cache.stale.refresh.failures", cache, CoalescingCache::getFailedRefreshes)
+                    .tags(tags)
+                    .tag("cache", cache.getName())
+                    .description("Background revalidations that failed and kept the stale entry")
+                    .register(registry);
+
+            Gauge.builder("cache.coalesced.in_flight", cache, CoalescingCache::getInFlightKeys)
+                    .tags(tags)
+                    .tag("cache", cache.getName())
+                    .description("Keys with a load currently in flight")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Component("pageCacheGenerations")
+public class PageCacheGenerations {
+
+    public static final String PRODUCTS = "products";
+    public static final String USERS = "users";
+
+    private final Map<String, AtomicLong> generations = Map.of(PRODUCTS, new AtomicLong(), USERS, new AtomicLong());
+    private final Map<String, Cache<Pageable, Boolean>> firstPages;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    public PageCacheGenerations(@Value("${app.page-cache.prewarm-pages:8}") int prewarmPages) {
+        this.firstPages = Map.of(
+                PRODUCTS, Caffeine.newBuilder().maximumSize(prewarmPages).build(),
+                USERS, Caffeine.newBuilder().maximumSize(prewarmPages).build()
+        );
+    }
+
+    public PageKey key(String type, Pageable pageable) {
+        if(pageable.isPaged() && pageable.getPageNumber() == 0) {
+            firstPages.get(type).put(pageable, Boolean.TRUE);
+        }
+        return new PageKey(type, current(type), pageable);
+    }
+
+    public long current(String type) {
+        return generation(type).get();
+    }
+
+    public void advance(String type) {
+        generation(type).incrementAndGet();
+        listeners.forEach(listener -> listener.accept(type));
+    }
+
+    public List<Pageable> firstPages(String type) {
+        return List.copyOf(firstPages.get(type).asMap().keySet());
+    }
+
+    public void onAdvance(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private AtomicLong generation(String type) {
+        AtomicLong generation = generations.get(type);
+        if(generation == null) {
+            throw new IllegalArgumentException("tipo de página desconhecido: " + type);
+        }
+        return generation;
+    }
+
+    public record PageKey(String type, long generation, Pageable pageable) {
+    }
+}
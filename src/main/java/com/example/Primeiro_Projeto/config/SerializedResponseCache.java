@@ -0,0 +1,109 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+public class SerializedResponseCache {
+
+    public static final String CACHE_NAME = "productResponses";
+
+    private final Cache cache;
+    private final ObjectMapper objectMapper;
+    private final int gzipMinSize;
+
+    public SerializedResponseCache(
+            CacheManager cacheManager,
+            ObjectMapper objectMapper,
+            @Value("${app.response-cache.gzip-min-size:1024}") int gzipMinSize
+    ) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.objectMapper = objectMapper;
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    public SerializedResponse get(Object key, String etag, Object source) {
+        SerializedResponse cached = cache.get(key, SerializedResponse.class);
+        if(cached != null && (cached.etag().equals(etag) || cached.serializes(source))) {
+            return cached;
+        }
+
+        SerializedResponse serialized = serialize(etag, source);
+        cache.put(key, serialized);
+        return serialized;
+    }
+
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if(acceptEncoding == null) {
+            return false;
+        }
+
+        for(String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if(parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private SerializedResponse serialize(String etag, Object source) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(source);
+            return new SerializedResponse(etag, new WeakReference<>(source), json, json.length >= gzipMinSize ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("falha ao serializar resposta", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    public record SerializedResponse(String etag, WeakReference<Object> source, byte[] json, byte[] gzip) {
+
+        public boolean serializes(Object candidate) {
+            return source.get() == candidate;
+        }
+
+        public int size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+
+        public boolean gzipped(boolean acceptsGzip) {
+            return acceptsGzip && gzip != null;
+        }
+
+        public byte[] body(boolean acceptsGzip) {
+            return gzipped(acceptsGzip) ? gzip : json;
+        }
+
+        public HttpHeaders headers(boolean acceptsGzip) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if(gzipped(acceptsGzip)) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.Primeiro_Projeto.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public final class StaleReads {
+
+    public static final String HEADER = "X-Cache-Stale";
+
+    private static final String ATTRIBUTE = StaleReads.class.getName();
+
+    private StaleReads() {
+    }
+
+    public static void record(Duration staleness) {
+        if(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            if(!(request.getAttribute(ATTRIBUTE) instanceof Duration recorded) || recorded.compareTo(staleness) < 0) {
+                request.setAttribute(ATTRIBUTE, staleness);
+            }
+        }
+    }
+
+    public static Optional<String> headerValue(HttpServletRequest request) {
+        return request.getAttribute(ATTRIBUTE) instanceof Duration staleness
+                ? Optional.of(String.valueOf(Math.max(staleness.toSeconds(), 1)))
+                : Optional.empty();
+    }
+}
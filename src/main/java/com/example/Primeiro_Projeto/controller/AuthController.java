@@ -2,16 +2,20 @@ package com.example.Primeiro_Projeto.controller;
 
 import com.example.Primeiro_Projeto.config.LogMessages;
 import com.example.Primeiro_Projeto.dtos.LoginRequestDTO;
+import com.example.Primeiro_Projeto.dtos.RefreshTokenRequestDTO;
+import com.example.Primeiro_Projeto.dtos.TokenResponseDTO;
 import com.example.Primeiro_Projeto.dtos.UserRequestDTO;
 import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
 import com.example.Primeiro_Projeto.services.AuthService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -36,10 +40,29 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody @Valid LoginRequestDTO request) {
+    public ResponseEntity<TokenResponseDTO> login(@RequestBody @Valid LoginRequestDTO request) {
         log.info(" POST /api/auth/login - Realizar Login");
-        String response = authService.login(request);
+        TokenResponseDTO response = authService.login(request);
         log.info(" POST /api/auth/login - Login Realizado");
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponseDTO> refresh(@RequestBody @Valid RefreshTokenRequestDTO request) {
+        log.info(" POST /api/auth/refresh - Renovar Access Token");
+        TokenResponseDTO response = authService.refresh(request);
+        log.info(" POST /api/auth/refresh - Access Token Renovado");
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequestDTO request
+    ) {
+        log.info(" POST /api/auth/logout - Realizar Logout");
+        authService.logout(authorization, request != null ? request.getRefreshToken() : null);
+        log.info(" POST /api/auth/logout - Logout Realizado");
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.Primeiro_Projeto.controller;
+
+import com.example.Primeiro_Projeto.config.CatalogGeneration;
+import com.example.Primeiro_Projeto.config.LogMessages;
+import com.example.Primeiro_Projeto.config.SerializedResponseCache;
+import com.example.Primeiro_Projeto.config.StaleReads;
+import com.example.Primeiro_Projeto.exceptions.BadRequestException;
+import com.example.Primeiro_Projeto.services.ProductCatalogReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.web.servlet.function.RouterFunctions.route;
+
+@Configuration
+public class ProductCatalogRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalogRouter.class);
+
+    private final ProductCatalogReader productCatalogReader;
+    private final SerializedResponseCache serializedResponseCache;
+    private final CatalogGeneration catalogGeneration;
+    private final int maxPageSize;
+
+    public ProductCatalogRouter(
+            ProductCatalogReader productCatalogReader,
+            SerializedResponseCache serializedResponseCache,
+            CatalogGeneration catalogGeneration,
+            @Value("${spring.data.web.pageable.max-page-size:2000}") int maxPageSize
+    ) {
+        this.productCatalogReader = productCatalogReader;
+        this.serializedResponseCache = serializedResponseCache;
+        this.catalogGeneration = catalogGeneration;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> productCatalogRoutes() {
+        return route()
+                .path("/api/catalog/products", builder -> builder
+                        .GET("/all", this::getAllProducts)
+                        .GET("/id/{id}", this::findProductById)
+                        .GET("/name/{name}", this::findProductByName)
+                        .GET("", this::getProductsPaginated))
+                .build();
+    }
+
+    private ServerResponse getAllProducts(ServerRequest request) {
+        log.info(" GET /api/catalog/products/all - " + LogMessages.RESOURCE_LIST_ALL, "products");
+        String etag = catalogGeneration.etag(catalogGeneration.current());
+        if(CatalogGeneration.matches(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return notModified(etag);
+        }
+
+        return ServerResponse.async(productCatalogReader.listAllProducts()
+                .thenApply(products -> serialized("all", products, etag, request)));
+    }
+
+    private ServerResponse getProductsPaginated(ServerRequest request) {
+        log.info(" GET /api/catalog/products - " + LogMessages.RESOURCE_LIST_ALL, "products");
+        int page = parseParam(request, "page", 0);
+        int size = Math.min(parseParam(request, "size", 4), maxPageSize);
+        if(page < 0 || size < 1) {
+            throw new BadRequestException("page deve ser maior ou igual a 0 e size maior que 0");
+        }
+        String sort = request.param("sort").orElse("id");
+        Sort.Direction sortDirection = "asc".equalsIgnoreCase(request.param("direction").orElse("asc"))
+                ? Sort.Direction.ASC
+                : Sort.Direction.DESC;
+
+        return ok(productCatalogReader.getProductsPaginated(PageRequest.of(page, size, Sort.by(sortDirection, sort))), request);
+    }
+
+    private ServerResponse findProductById(ServerRequest request) {
+        Long id = parseId(request.pathVariable("id"));
+        log.info(" GET /api/catalog/products/id/{} - " + LogMessages.RESOURCE_FIND_BY_FIELD, id, "product", "id");
+        long generation = catalogGeneration.current();
+        return ServerResponse.async(productCatalogReader.getProductById(id).thenApply(product -> {
+            String etag = catalogGeneration.etag(generation, product.getVersion());
+            return CatalogGeneration.matches(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH), etag)
+                    ? notModified(etag)
+                    : serialized("id:" + id, product, etag, request);
+        }));
+    }
+
+    private ServerResponse findProductByName(ServerRequest request) {
+        String name = request.pathVariable("name");
+        log.info(" GET /api/catalog/products/name/{} - " + LogMessages.RESOURCE_FIND_BY_FIELD, name, "product", "name");
+        return ok(productCatalogReader.getProductByName(name), request);
+    }
+
+    private ServerResponse serialized(String key, Object body, String etag, ServerRequest request) {
+        boolean gzip = SerializedResponseCache.acceptsGzip(request.headers().firstHeader(HttpHeaders.ACCEPT_ENCODING));
+        SerializedResponseCache.SerializedResponse serialized = serializedResponseCache.get(key, etag, body);
+        return ServerResponse.ok()
+                .headers(headers -> headers.addAll(serialized.headers(gzip)))
+                .headers(headers -> flagStale(headers, request))
+                .eTag(CatalogGeneration.forEncoding(etag, serialized.gzipped(gzip)))
+                .body(serialized.body(gzip));
+    }
+
+    private static int parseParam(ServerRequest request, String name, int defaultValue) {
+        String value = request.param(name).orElse(null);
+        if(value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " inválido: " + value);
+        }
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("id inválido: " + value);
+        }
+    }
+
+    private static ServerResponse notModified(String etag) {
+        return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static ServerResponse ok(CompletableFuture<?> body, ServerRequest request) {
+        return ServerResponse.async(body.thenApply(result -> ServerResponse.ok()
+                .headers(headers -> flagStale(headers, request))
+                .body(result)));
+    }
+
+    private static void flagStale(HttpHeaders headers, ServerRequest request) {
+        StaleReads.headerValue(request.servletRequest()).ifPresent(staleness -> headers.set(StaleReads.HEADER, staleness));
+    }
+}
@@ -1,9 +1,18 @@
 package com.example.Primeiro_Projeto.controller;
 
+import com.example.Primeiro_Projeto.config.CatalogGeneration;
 import com.example.Primeiro_Projeto.config.LogMessages;
+import com.example.Primeiro_Projeto.config.SerializedResponseCache;
+import com.example.Primeiro_Projeto.dtos.CursorPageDTO;
+import com.example.Primeiro_Projeto.dtos.ProductChangesDTO;
+import com.example.Primeiro_Projeto.dtos.ProductImportReportDTO;
 import com.example.Primeiro_Projeto.dtos.ProductRequestDTO;
 import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
 import com.example.Primeiro_Projeto.dtos.ProductUpdateRequestDTO;
+import com.example.Primeiro_Projeto.dtos.UserFromProductDTO;
+import com.example.Primeiro_Projeto.services.DataFormat;
+import com.example.Primeiro_Projeto.services.ExportService;
+import com.example.Primeiro_Projeto.services.ProductImportService;
 import com.example.Primeiro_Projeto.services.ProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,11 +20,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -25,18 +38,40 @@ public class ProductController {
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ExportService exportService;
+    private final SerializedResponseCache serializedResponseCache;
+    private final CatalogGeneration catalogGeneration;
 
-    public ProductController(ProductService productService) {
+    public ProductController(
+            ProductService productService,
+            ProductImportService productImportService,
+            ExportService exportService,
+            SerializedResponseCache serializedResponseCache,
+            CatalogGeneration catalogGeneration
+    ) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.exportService = exportService;
+        this.serializedResponseCache = serializedResponseCache;
+        this.catalogGeneration = catalogGeneration;
     }
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.info(" GET /api/products/all - " + LogMessages.RESOURCE_LIST_ALL, "products");
+        String etag = catalogGeneration.etag(catalogGeneration.current());
+        if(CatalogGeneration.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
         List<ProductResponseDTO> response = productService.listAllProducts();
         log.info(" GET /api/products/all - " + LogMessages.OPERATION_SUCCESS, "getAllProducts");
-        return ResponseEntity.ok(response);
+        return serialized("all", response, etag, acceptEncoding);
     }
 
     @GetMapping
@@ -59,12 +94,73 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        log.info(" GET /api/products/export - " + LogMessages.RESOURCE_LIST_ALL, "products");
+        DataFormat dataFormat = DataFormat.fromName(format);
+        StreamingResponseBody body = output -> exportService.exportProducts(output, dataFormat);
+        return ResponseEntity.ok()
+                .contentType(dataFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + dataFormat.getExtension())
+                .body(body);
+    }
+
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> getProductsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "4") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        log.info(" GET /api/products/cursor - " + LogMessages.RESOURCE_LIST_ALL, "products");
+        CursorPageDTO<ProductResponseDTO> response = productService.getProductsByCursor(sort, direction, size, cursor);
+        log.info(" GET /api/products/cursor - " + LogMessages.OPERATION_SUCCESS, "getProductsByCursor");
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/changes")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ProductChangesDTO> getProductChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int size
+    ) {
+        log.info(" GET /api/products/changes - " + LogMessages.RESOURCE_LIST_ALL, "product changes");
+        ProductChangesDTO response = productService.getChanges(since, size);
+        log.info(" GET /api/products/changes - " + LogMessages.OPERATION_SUCCESS, "getProductChanges");
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/id/{id}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<ProductResponseDTO> findProductById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> findProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.info(" GET /api/products/id/{} - " + LogMessages.RESOURCE_FIND_BY_FIELD, id, "product", "id");
+        long generation = catalogGeneration.current();
         ProductResponseDTO response = productService.getProductById(id);
+        String etag = catalogGeneration.etag(generation, response.getVersion());
+        if(CatalogGeneration.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
         log.info(" GET /api/products/id/{} - " + LogMessages.OPERATION_SUCCESS, id, "findProductById");
+        return serialized("id:" + id, response, etag, acceptEncoding);
+    }
+
+    @GetMapping("/{id}/users")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPageDTO<UserFromProductDTO>> getUsersOfProduct(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        log.info(" GET /api/products/{}/users - " + LogMessages.RESOURCE_FIND_BY_FIELD, id, "users", "product");
+        CursorPageDTO<UserFromProductDTO> response = productService.getUsersOfProduct(id, size, cursor);
+        log.info(" GET /api/products/{}/users - " + LogMessages.OPERATION_SUCCESS, id, "getUsersOfProduct");
         return ResponseEntity.ok(response);
     }
 
@@ -86,6 +182,15 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportReportDTO> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        log.info(" POST /api/products/import - " + LogMessages.RESOURCE_CREATE, "products");
+        ProductImportReportDTO response = productImportService.importProducts(body, DataFormat.fromContentType(contentType));
+        log.info(" POST /api/products/import - " + LogMessages.OPERATION_SUCCESS, "importProducts");
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}/update")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductResponseDTO> updateProduct(@PathVariable Long id, @RequestBody ProductUpdateRequestDTO requestUpdate) {
@@ -103,4 +208,17 @@ public class ProductController {
         log.info(" DELETE /api/users/{} - " + LogMessages.OPERATION_SUCCESS, id, "removeProductById");
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<byte[]> serialized(String key, Object response, String etag, String acceptEncoding) {
+        SerializedResponseCache.SerializedResponse serialized = serializedResponseCache.get(key, etag, response);
+        boolean gzip = SerializedResponseCache.acceptsGzip(acceptEncoding);
+        return ResponseEntity.ok()
+                .headers(serialized.headers(gzip))
+                .eTag(CatalogGeneration.forEncoding(etag, serialized.gzipped(gzip)))
+                .body(serialized.body(gzip));
+    }
+
+    private ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+}
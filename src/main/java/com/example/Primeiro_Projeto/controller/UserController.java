@@ -1,9 +1,16 @@
 package com.example.Primeiro_Projeto.controller;
 
 import com.example.Primeiro_Projeto.config.LogMessages;
+import com.example.Primeiro_Projeto.dtos.CursorPageDTO;
+import com.example.Primeiro_Projeto.dtos.ProductFromUserDTO;
+import com.example.Primeiro_Projeto.dtos.ProductIdsRequestDTO;
+import com.example.Primeiro_Projeto.dtos.ProductLinkBatchResponseDTO;
+import com.example.Primeiro_Projeto.dtos.ProductUnlinkBatchResponseDTO;
 import com.example.Primeiro_Projeto.dtos.UserRequestDTO;
 import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
 import com.example.Primeiro_Projeto.dtos.UserUpdateRequestDTO;
+import com.example.Primeiro_Projeto.services.DataFormat;
+import com.example.Primeiro_Projeto.services.ExportService;
 import com.example.Primeiro_Projeto.services.UserService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -12,12 +19,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -28,9 +37,11 @@ public class UserController {
     private static final Logger log = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final ExportService exportService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ExportService exportService) {
         this.userService = userService;
+        this.exportService = exportService;
     }
 
     @GetMapping("/all")
@@ -62,6 +73,32 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        log.info(" GET /api/users/export - " + LogMessages.RESOURCE_LIST_ALL, "users");
+        DataFormat dataFormat = DataFormat.fromName(format);
+        StreamingResponseBody body = output -> exportService.exportUsers(output, dataFormat);
+        return ResponseEntity.ok()
+                .contentType(dataFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + dataFormat.getExtension())
+                .body(body);
+    }
+
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDTO<UserResponseDTO>> getUsersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        log.info(" GET /api/users/cursor - " + LogMessages.RESOURCE_LIST_ALL, "users");
+        CursorPageDTO<UserResponseDTO> response = userService.getUsersByCursor(sort, direction, size, cursor);
+        log.info(" GET /api/users/cursor - " + LogMessages.OPERATION_SUCCESS, "getUsersByCursor");
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/id/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<UserResponseDTO> findUserById(@PathVariable Long id) {
@@ -71,6 +108,19 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/products")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDTO<ProductFromUserDTO>> getProductsOfUser(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        log.info(" GET /api/users/{}/products - " + LogMessages.RESOURCE_FIND_BY_FIELD, id, "products", "user");
+        CursorPageDTO<ProductFromUserDTO> response = userService.getProductsOfUser(id, size, cursor);
+        log.info(" GET /api/users/{}/products - " + LogMessages.OPERATION_SUCCESS, id, "getProductsOfUser");
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}/update")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<UserResponseDTO> updateUser(@PathVariable Long id, @RequestBody @Valid UserUpdateRequestDTO requestUpdate) {
@@ -100,6 +150,24 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("{id_User}/add_products")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ProductLinkBatchResponseDTO> addProductsForUser(@PathVariable Long id_User, @RequestBody @Valid ProductIdsRequestDTO request) {
+        log.info(" POST /api/users/{}/add_products - Adicionando Products ao User", id_User);
+        ProductLinkBatchResponseDTO response = userService.addProductsForUser(id_User, request.getProductIds());
+        log.info(" POST /api/users/{}/add_products - " + LogMessages.OPERATION_SUCCESS, id_User, "addProductsForUser");
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("{id_User}/remove_products")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ProductUnlinkBatchResponseDTO> removeProductsFromUser(@PathVariable Long id_User, @RequestBody @Valid ProductIdsRequestDTO request) {
+        log.info(" POST /api/users/{}/remove_products - Removendo Products do User", id_User);
+        ProductUnlinkBatchResponseDTO response = userService.removeProductsFromUser(id_User, request.getProductIds());
+        log.info(" POST /api/users/{}/remove_products - " + LogMessages.OPERATION_SUCCESS, id_User, "removeProductsFromUser");
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/{id}/promote_to_admin")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<UserResponseDTO> promoteToAdmin(@PathVariable Long id) {
@@ -0,0 +1,18 @@
+package com.example.Primeiro_Projeto.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content = new ArrayList<>();
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
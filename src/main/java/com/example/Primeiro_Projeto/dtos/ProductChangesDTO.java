@@ -0,0 +1,18 @@
+package com.example.Primeiro_Projeto.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangesDTO {
+    private List<ProductResponseDTO> upserts = new ArrayList<>();
+    private List<Long> deletes = new ArrayList<>();
+    private long watermark;
+    private boolean hasNext;
+}
@@ -0,0 +1,20 @@
+package com.example.Primeiro_Projeto.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductIdsRequestDTO {
+    @NotEmpty(message = "productIds é obrigatório")
+    @Size(max = 500, message = "productIds deve ter no máximo 500 ids")
+    private List<@NotNull(message = "productIds não pode conter valores nulos") Long> productIds = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package com.example.Primeiro_Projeto.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportErrorDTO {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.example.Primeiro_Projeto.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportReportDTO {
+    private long processed;
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    private List<ProductImportErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+}
@@ -1,5 +1,6 @@
 package com.example.Primeiro_Projeto.dtos;
 
+import com.example.Primeiro_Projeto.model.Product;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +9,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -18,4 +21,8 @@ public class ProductRequestDTO {
     @NotNull(message = "price é obrigatório")
     @Min(value = 0)
     private Double price;
+
+    public Product toEntity() {
+        return new Product(null, name, price, new ArrayList<>(), null, 0);
+    }
 }
\ No newline at end of file
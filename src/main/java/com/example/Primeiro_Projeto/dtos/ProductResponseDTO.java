@@ -5,10 +5,6 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -16,17 +12,14 @@ public class ProductResponseDTO {
     private Long id;
     private String name;
     private Double price;
-    private List<UserFromProductDTO> users = new ArrayList<>();
+    private long userCount;
+    private Long version;
 
-    public ProductResponseDTO(Product product) {
+    public ProductResponseDTO(Product product, long userCount) {
         this.id = product.getId();
         this.name = product.getName();
         this.price = product.getPrice();
-        if (product.getUsers() != null) {
-            this.users = product.getUsers()
-                    .stream()
-                    .map(user -> new UserFromProductDTO(user.getId(), user.getUsername()))
-                    .collect(Collectors.toList());
-        }
+        this.userCount = userCount;
+        this.version = product.getVersion();
     }
-}
\ No newline at end of file
+}
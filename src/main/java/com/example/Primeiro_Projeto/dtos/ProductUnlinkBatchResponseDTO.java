@@ -0,0 +1,18 @@
+package com.example.Primeiro_Projeto.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductUnlinkBatchResponseDTO {
+    private Long userId;
+    private List<Long> removed = new ArrayList<>();
+    private List<Long> notPresent = new ArrayList<>();
+    private List<Long> missing = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package com.example.Primeiro_Projeto.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenRequestDTO {
+    @NotBlank(message = "refreshToken é obrigatório")
+    private String refreshToken;
+}
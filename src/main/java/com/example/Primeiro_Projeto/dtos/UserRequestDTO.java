@@ -1,5 +1,6 @@
 package com.example.Primeiro_Projeto.dtos;
 
+import com.example.Primeiro_Projeto.model.User;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -20,4 +21,12 @@ public class UserRequestDTO {
     @NotBlank(message = "password é obrigatória")
     @Size(min = 6, message = "password deve ter no mínimo 6 caracteres")
     private String password;
+
+    public User toEntity() {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword(password);
+        return user;
+    }
 }
\ No newline at end of file
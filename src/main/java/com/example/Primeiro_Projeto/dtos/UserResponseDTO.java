@@ -6,9 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.EnumSet;
+import java.util.Set;
 
 @Data
 @AllArgsConstructor
@@ -17,19 +16,16 @@ public class UserResponseDTO {
     private Long id;
     private String username;
     private String email;
-    private List<Role> roles = new ArrayList<>();
-    private List<ProductFromUserDTO> products = new ArrayList<>();
+    private Set<Role> roles = EnumSet.noneOf(Role.class);
+    private long productCount;
+    private Long version;
 
-    public UserResponseDTO(User user) {
+    public UserResponseDTO(User user, long productCount) {
         this.id = user.getId();
         this.username = user.getUsername();
         this.email = user.getEmail();
-        this.roles = user.getRoles();
-        if(user.getProducts() != null) {
-            this.products = user.getProducts()
-                    .stream()
-                    .map(product -> new ProductFromUserDTO(product.getId(), product.getName(), product.getPrice()))
-                    .collect(Collectors.toList());
-        }
+        this.roles = EnumSet.copyOf(user.getRoles());
+        this.productCount = productCount;
+        this.version = user.getVersion();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package com.example.Primeiro_Projeto.exceptions;
+
+public class GoneException extends RuntimeException{
+
+    public GoneException(String message) {
+        super(message);
+    }
+}
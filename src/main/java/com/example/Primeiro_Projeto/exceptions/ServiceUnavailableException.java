@@ -0,0 +1,15 @@
+package com.example.Primeiro_Projeto.exceptions;
+
+public class ServiceUnavailableException extends RuntimeException{
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.Primeiro_Projeto.exceptions;
+
+public class UnauthorizedException extends RuntimeException{
+
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -1,11 +1,18 @@
 package com.example.Primeiro_Projeto.infra;
 
 import com.example.Primeiro_Projeto.exceptions.ApiError;
+import com.example.Primeiro_Projeto.exceptions.BadRequestException;
 import com.example.Primeiro_Projeto.exceptions.ConflictException;
+import com.example.Primeiro_Projeto.exceptions.GoneException;
 import com.example.Primeiro_Projeto.exceptions.ResourceNotFoundException;
+import com.example.Primeiro_Projeto.exceptions.ServiceUnavailableException;
+import com.example.Primeiro_Projeto.exceptions.UnauthorizedException;
 import com.example.Primeiro_Projeto.exceptions.ValidateResponseError;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -45,6 +52,90 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(apiError);
     }
 
+    @ExceptionHandler(GoneException.class)
+    public ResponseEntity<ApiError> handlerGoneException(GoneException ex, WebRequest request) {
+        HttpStatus status = HttpStatus.GONE;
+
+        ApiError apiError = new ApiError(
+                status.value(),
+                status.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(status).body(apiError);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handlerOptimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request) {
+        HttpStatus status = HttpStatus.CONFLICT;
+
+        ApiError apiError = new ApiError(
+                status.value(),
+                status.getReasonPhrase(),
+                "registro alterado por outra requisição, recarregue e tente novamente",
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(status).body(apiError);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiError> handlerBadRequestException(BadRequestException ex, WebRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+
+        ApiError apiError = new ApiError(
+                status.value(),
+                status.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(status).body(apiError);
+    }
+
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<ApiError> handlerUnauthorizedException(UnauthorizedException ex, WebRequest request) {
+        HttpStatus status = HttpStatus.UNAUTHORIZED;
+
+        ApiError apiError = new ApiError(
+                status.value(),
+                status.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(status).body(apiError);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handlerServiceUnavailableException(ServiceUnavailableException ex, WebRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+
+        ApiError apiError = new ApiError(
+                status.value(),
+                status.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds())).body(apiError);
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ApiError> handlerCannotCreateTransactionException(CannotCreateTransactionException ex, WebRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+
+        ApiError apiError = new ApiError(
+                status.value(),
+                status.getReasonPhrase(),
+                "banco de dados sobrecarregado, tente novamente",
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(apiError);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidateResponseError> handlerMethodArgumentNotValidException(MethodArgumentNotValidException ex, WebRequest request) {
         Map<String, String> errors = new HashMap<>();
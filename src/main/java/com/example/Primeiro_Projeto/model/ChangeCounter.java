@@ -0,0 +1,19 @@
+package com.example.Primeiro_Projeto.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "change_counters")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeCounter {
+    @Id
+    @Column(length = 50)
+    private String name;
+    @Column(name = "current_value", nullable = false)
+    private long value;
+}
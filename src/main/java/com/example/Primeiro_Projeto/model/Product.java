@@ -4,18 +4,22 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_change_seq", columnList = "change_seq")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("products_seq")
     private Long id;
     @Column(nullable = false, unique = true)
     private String name;
@@ -23,4 +27,11 @@ public class Product {
     private Double price;
     @ManyToMany(mappedBy = "products")
     private List<User> users = new ArrayList<>();
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    @ColumnDefault("1")
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
 }
\ No newline at end of file
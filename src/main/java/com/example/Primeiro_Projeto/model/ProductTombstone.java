@@ -0,0 +1,27 @@
+package com.example.Primeiro_Projeto.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "product_tombstones", indexes = {
+        @Index(name = "idx_product_tombstones_change_seq", columnList = "change_seq")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductTombstone {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+}
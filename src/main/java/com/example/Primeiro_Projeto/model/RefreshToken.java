@@ -0,0 +1,41 @@
+package com.example.Primeiro_Projeto.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_user_expires", columnList = "user_id, expires_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshToken {
+    @Id
+    @PooledSequence("refresh_tokens_seq")
+    private Long id;
+    @Column(name = "token_hash", nullable = false, unique = true, length = 43)
+    private String tokenHash;
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    @Column(nullable = false)
+    private String email;
+    @Convert(converter = RoleMaskConverter.class)
+    @Column(name = "role_mask", nullable = false)
+    private EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+    @Column(nullable = false)
+    private boolean used;
+}
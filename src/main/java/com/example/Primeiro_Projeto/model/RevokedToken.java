@@ -0,0 +1,23 @@
+package com.example.Primeiro_Projeto.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedToken {
+    @Id
+    @Column(length = 36)
+    private String jti;
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
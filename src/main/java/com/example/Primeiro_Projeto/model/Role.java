@@ -1,9 +1,19 @@
 package com.example.Primeiro_Projeto.model;
 
 public enum Role {
-    USER, ADMIN;
+    USER(1), ADMIN(2);
+
+    private final int bit;
+
+    Role(int bit) {
+        this.bit = bit;
+    }
 
     public String getAuthority() {
         return this.name();
     }
+
+    public int getBit() {
+        return bit;
+    }
 }
@@ -0,0 +1,36 @@
+package com.example.Primeiro_Projeto.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+
+@Converter
+public class RoleMaskConverter implements AttributeConverter<EnumSet<Role>, Integer> {
+
+    private static final Role[] ROLES = Role.values();
+
+    @Override
+    public Integer convertToDatabaseColumn(EnumSet<Role> roles) {
+        int mask = 0;
+        if(roles != null) {
+            for(Role role : roles) {
+                mask |= role.getBit();
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public EnumSet<Role> convertToEntityAttribute(Integer mask) {
+        EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+        if(mask != null) {
+            for(Role role : ROLES) {
+                if((mask & role.getBit()) != 0) {
+                    roles.add(role);
+                }
+            }
+        }
+        return roles;
+    }
+}
@@ -4,18 +4,22 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_username_id", columnList = "username, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("users_seq")
     private Long id;
     @Column(nullable = false)
     private String username;
@@ -23,19 +27,24 @@ public class User {
     private String email;
     @Column(nullable = false)
     private String password;
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(
-            name = "user_roles",
-            joinColumns = @JoinColumn(name = "user_id")
-    )
-    @Enumerated(EnumType.STRING)
-    @Column(name = "role_name")
-    private List<Role> roles = new ArrayList<>();
+    @Convert(converter = RoleMaskConverter.class)
+    @ColumnDefault("0")
+    @Column(name = "role_mask", nullable = false)
+    private EnumSet<Role> roles = EnumSet.noneOf(Role.class);
     @ManyToMany
     @JoinTable(
             name = "users_products",
             joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "product_id")
+            inverseJoinColumns = @JoinColumn(name = "product_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_users_products_user_product", columnNames = {"user_id", "product_id"}),
+            indexes = @Index(name = "idx_users_products_product_user", columnList = "product_id, user_id")
     )
     private List<Product> products = new ArrayList<>();
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.Primeiro_Projeto.repositories;
+
+import com.example.Primeiro_Projeto.model.ChangeCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChangeCounterRepository extends JpaRepository<ChangeCounter, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ChangeCounter> findWithLockByName(String name);
+}
@@ -0,0 +1,11 @@
+package com.example.Primeiro_Projeto.repositories;
+
+import java.util.List;
+
+public interface ProductChangeSeqRepository {
+    void createChangeSeqIfAbsent();
+
+    List<Long> nextChangeSeqs(int count);
+
+    int[][] updateChangeSeqs(List<Long> productIds, List<Long> changeSeqs);
+}
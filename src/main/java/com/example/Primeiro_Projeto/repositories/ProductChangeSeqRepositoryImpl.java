@@ -0,0 +1,52 @@
+package com.example.Primeiro_Projeto.repositories;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductChangeSeqRepositoryImpl implements ProductChangeSeqRepository {
+
+    static final String CHANGE_SEQ = "product_change_seq";
+
+    private static final String MAX_CHANGE_SEQ = """
+            SELECT GREATEST(
+                COALESCE((SELECT MAX(change_seq) FROM products), 0),
+                COALESCE((SELECT MAX(change_seq) FROM product_tombstones), 0)
+            )
+            """;
+    private static final String NEXT_CHANGE_SEQS = "SELECT nextval('" + CHANGE_SEQ + "') AS seq FROM generate_series(1, ?) ORDER BY seq";
+    private static final String UPDATE_CHANGE_SEQ = "UPDATE products SET change_seq = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public ProductChangeSeqRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${app.links.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void createChangeSeqIfAbsent() {
+        Long current = jdbcTemplate.queryForObject(MAX_CHANGE_SEQ, Long.class);
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + CHANGE_SEQ + " START WITH " + ((current != null ? current : 0) + 1));
+    }
+
+    @Override
+    public List<Long> nextChangeSeqs(int count) {
+        return jdbcTemplate.queryForList(NEXT_CHANGE_SEQS, Long.class, count);
+    }
+
+    @Override
+    public int[][] updateChangeSeqs(List<Long> productIds, List<Long> changeSeqs) {
+        List<Integer> indexes = new ArrayList<>(productIds.size());
+        for(int i = 0; i < productIds.size(); i++) {
+            indexes.add(i);
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_CHANGE_SEQ, indexes, batchSize, (statement, i) -> {
+            statement.setLong(1, changeSeqs.get(i));
+            statement.setLong(2, productIds.get(i));
+        });
+    }
+}
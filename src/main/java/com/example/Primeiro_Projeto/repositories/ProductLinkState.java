@@ -0,0 +1,7 @@
+package com.example.Primeiro_Projeto.repositories;
+
+public interface ProductLinkState {
+    Long getId();
+
+    boolean getLinked();
+}
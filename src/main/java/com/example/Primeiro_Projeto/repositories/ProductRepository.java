@@ -1,16 +1,94 @@
 package com.example.Primeiro_Projeto.repositories;
 
+import com.example.Primeiro_Projeto.dtos.UserFromProductDTO;
 import com.example.Primeiro_Projeto.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductChangeSeqRepository {
     Optional<Product> findByName(String name);
 
     boolean existsByName(String name);
 
     boolean existsByNameAndIdNot(String name, Long id);
+
+    @Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    Slice<Product> findAllBy(Pageable pageable);
+
+    List<Product> findByChangeSeqBetweenOrderByChangeSeqAsc(long fromChangeSeq, long toChangeSeq, Limit limit);
+
+    @Query("SELECT p.id FROM Product p WHERE p.changeSeq <= :changeSeq ORDER BY p.id ASC")
+    List<Long> findIdsUpToChangeSeq(@Param("changeSeq") long changeSeq);
+
+    @Query("SELECT p FROM Product p WHERE p.id > :id ORDER BY p.id ASC")
+    Slice<Product> findNextByIdAsc(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.id < :id ORDER BY p.id DESC")
+    Slice<Product> findNextByIdDesc(@Param("id") Long id, Pageable pageable);
+
+    @Query("""
+            SELECT p FROM Product p
+            WHERE p.name >= :name AND (p.name > :name OR p.id > :id)
+            ORDER BY p.name ASC, p.id ASC
+            """)
+    Slice<Product> findNextByNameAsc(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @Query("""
+            SELECT p FROM Product p
+            WHERE p.name <= :name AND (p.name < :name OR p.id < :id)
+            ORDER BY p.name DESC, p.id DESC
+            """)
+    Slice<Product> findNextByNameDesc(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @Query("""
+            SELECT p FROM Product p
+            WHERE p.price >= :price AND (p.price > :price OR p.id > :id)
+            ORDER BY p.price ASC, p.id ASC
+            """)
+    Slice<Product> findNextByPriceAsc(@Param("price") Double price, @Param("id") Long id, Pageable pageable);
+
+    @Query("""
+            SELECT p FROM Product p
+            WHERE p.price <= :price AND (p.price < :price OR p.id < :id)
+            ORDER BY p.price DESC, p.id DESC
+            """)
+    Slice<Product> findNextByPriceDesc(@Param("price") Double price, @Param("id") Long id, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM users_products WHERE product_id = :productId", nativeQuery = true)
+    long countUsersByProductId(@Param("productId") Long productId);
+
+    @Query(value = """
+            SELECT product_id AS id, COUNT(*) AS total
+            FROM users_products
+            WHERE product_id IN (:productIds)
+            GROUP BY product_id
+            """, nativeQuery = true)
+    List<AssociationCount> countUsersByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query(value = """
+            SELECT product_id AS id, COUNT(*) AS total
+            FROM users_products
+            GROUP BY product_id
+            """, nativeQuery = true)
+    List<AssociationCount> countUsersOfAllProducts();
+
+    @Query("""
+            SELECT new com.example.Primeiro_Projeto.dtos.UserFromProductDTO(u.id, u.username)
+            FROM Product p JOIN p.users u
+            WHERE p.id = :productId AND u.id > :afterId
+            ORDER BY u.id ASC
+            """)
+    Slice<UserFromProductDTO> findUsersOfProduct(@Param("productId") Long productId, @Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.Primeiro_Projeto.repositories;
+
+import com.example.Primeiro_Projeto.model.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+    List<ProductTombstone> findByChangeSeqBetweenOrderByChangeSeqAsc(long fromChangeSeq, long toChangeSeq, Limit limit);
+
+    @Query("SELECT MAX(t.changeSeq) FROM ProductTombstone t WHERE t.deletedAt < :cutoff")
+    Long findMaxChangeSeqDeletedBefore(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM ProductTombstone t WHERE t.changeSeq <= :changeSeq")
+    int deleteUpToChangeSeq(@Param("changeSeq") long changeSeq);
+}
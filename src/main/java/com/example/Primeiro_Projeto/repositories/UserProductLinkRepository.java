@@ -0,0 +1,7 @@
+package com.example.Primeiro_Projeto.repositories;
+
+import java.util.Collection;
+
+public interface UserProductLinkRepository {
+    int[][] batchInsertProductLinks(Long userId, Collection<Long> productIds);
+}
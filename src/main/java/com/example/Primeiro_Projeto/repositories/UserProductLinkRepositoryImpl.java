@@ -0,0 +1,27 @@
+package com.example.Primeiro_Projeto.repositories;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+
+public class UserProductLinkRepositoryImpl implements UserProductLinkRepository {
+
+    private static final String INSERT_LINK = "INSERT INTO users_products (user_id, product_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public UserProductLinkRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${app.links.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int[][] batchInsertProductLinks(Long userId, Collection<Long> productIds) {
+        return jdbcTemplate.batchUpdate(INSERT_LINK, productIds, batchSize, (statement, productId) -> {
+            statement.setLong(1, userId);
+            statement.setLong(2, productId);
+        });
+    }
+}
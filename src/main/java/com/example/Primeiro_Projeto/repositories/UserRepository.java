@@ -1,14 +1,21 @@
 package com.example.Primeiro_Projeto.repositories;
 
+import com.example.Primeiro_Projeto.dtos.ProductFromUserDTO;
 import com.example.Primeiro_Projeto.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserProductLinkRepository {
     List<User> findAllByOrderByIdAsc();
 
     Optional<User> findByEmail(String email);
@@ -16,4 +23,88 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     boolean existsByEmailAndIdNot(String email, Long id);
-}
\ No newline at end of file
+
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password, u.version = u.version + 1 WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
+    Slice<User> findAllBy(Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.id > :id ORDER BY u.id ASC")
+    Slice<User> findNextByIdAsc(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.id < :id ORDER BY u.id DESC")
+    Slice<User> findNextByIdDesc(@Param("id") Long id, Pageable pageable);
+
+    @Query("""
+            SELECT u FROM User u
+            WHERE u.username >= :username AND (u.username > :username OR u.id > :id)
+            ORDER BY u.username ASC, u.id ASC
+            """)
+    Slice<User> findNextByUsernameAsc(@Param("username") String username, @Param("id") Long id, Pageable pageable);
+
+    @Query("""
+            SELECT u FROM User u
+            WHERE u.username <= :username AND (u.username < :username OR u.id < :id)
+            ORDER BY u.username DESC, u.id DESC
+            """)
+    Slice<User> findNextByUsernameDesc(@Param("username") String username, @Param("id") Long id, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM users_products WHERE user_id = :userId", nativeQuery = true)
+    long countProductsByUserId(@Param("userId") Long userId);
+
+    @Query(value = """
+            SELECT user_id AS id, COUNT(*) AS total
+            FROM users_products
+            WHERE user_id IN (:userIds)
+            GROUP BY user_id
+            """, nativeQuery = true)
+    List<AssociationCount> countProductsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query(value = """
+            SELECT user_id AS id, COUNT(*) AS total
+            FROM users_products
+            GROUP BY user_id
+            """, nativeQuery = true)
+    List<AssociationCount> countProductsOfAllUsers();
+
+    @Query("""
+            SELECT new com.example.Primeiro_Projeto.dtos.ProductFromUserDTO(p.id, p.name, p.price)
+            FROM User u JOIN u.products p
+            WHERE u.id = :userId AND p.id > :afterId
+            ORDER BY p.id ASC
+            """)
+    Slice<ProductFromUserDTO> findProductsOfUser(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(value = "SELECT product_id FROM users_products WHERE user_id = :userId", nativeQuery = true)
+    List<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM users_products WHERE user_id = :userId AND product_id = :productId)", nativeQuery = true)
+    boolean existsProductLink(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    @Modifying
+    @Query(value = "INSERT INTO users_products (user_id, product_id) VALUES (:userId, :productId)", nativeQuery = true)
+    int insertProductLink(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    @Modifying
+    @Query(value = "DELETE FROM users_products WHERE user_id = :userId AND product_id = :productId", nativeQuery = true)
+    int deleteProductLink(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    @Query(value = """
+            SELECT p.id AS id, (up.user_id IS NOT NULL) AS linked
+            FROM products p
+            LEFT JOIN users_products up ON up.product_id = p.id AND up.user_id = :userId
+            WHERE p.id IN (:productIds)
+            """, nativeQuery = true)
+    List<ProductLinkState> findProductLinkStates(@Param("userId") Long userId, @Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM users_products WHERE user_id = :userId AND product_id IN (:productIds)", nativeQuery = true)
+    int deleteProductLinks(@Param("userId") Long userId, @Param("productIds") Collection<Long> productIds);
+}
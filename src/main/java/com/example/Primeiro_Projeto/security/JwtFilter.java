@@ -1,28 +1,48 @@
 package com.example.Primeiro_Projeto.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
-
-    public JwtFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationList tokenRevocationList;
+    private final boolean statelessPrincipal;
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    public JwtFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            TokenVersionRegistry tokenVersionRegistry,
+            TokenRevocationList tokenRevocationList,
+            @Value("${jwt.stateless-principal:true}") boolean statelessPrincipal
+    ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.tokenRevocationList = tokenRevocationList;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -34,26 +54,52 @@ public class JwtFilter extends OncePerRequestFilter {
 
         String token = getTokenFromHeader(request);
 
-        if(token != null && jwtService.validateToken(token)) {
+        Claims claims = token != null
+                ? jwtService.parseAndVerify(token).orElse(null)
+                : null;
 
-            String subject = jwtService.getSubjectFromToken(token);
+        if(claims != null && !tokenRevocationList.isRevoked(claims)) {
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
+            UserDetails userDetails = statelessPrincipal && claims.get(JwtService.CLAIM_USER_ID) != null
+                    ? getUserDetailsFromClaims(claims)
+                    : userDetailsService.loadUserByUsername(claims.getSubject());
 
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails,
-                    null,
-                    userDetails.getAuthorities()
-            );
+            if(userDetails != null) {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
 
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+                securityContextRepository.saveContext(context, request, response);
+            }
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails getUserDetailsFromClaims(Claims claims) {
+        Long userId = claims.get(JwtService.CLAIM_USER_ID, Long.class);
+        Integer tokenVersion = claims.get(JwtService.CLAIM_TOKEN_VERSION, Integer.class);
+
+        if(tokenVersion == null || !tokenVersionRegistry.isCurrent(userId, tokenVersion)) {
+            return null;
+        }
+
+        List<?> roles = claims.get(JwtService.CLAIM_ROLES, List.class);
+
+        return User.builder()
+                .username(claims.getSubject())
+                .password("")
+                .roles(roles.stream().map(String::valueOf).toArray(String[]::new))
+                .build();
+    }
+
     private String getTokenFromHeader(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
 
@@ -63,4 +109,4 @@ public class JwtFilter extends OncePerRequestFilter {
 
         return null;
     }
-}
\ No newline at end of file
+}
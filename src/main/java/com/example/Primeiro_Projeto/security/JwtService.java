@@ -1,5 +1,13 @@
 package com.example.Primeiro_Projeto.security;
 
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -7,54 +15,111 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secretKey}")
-    private String secretKey;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
 
-    @Value("${jwt.expiration.hours}")
-    private long expirationHour;
+    private final SecretKey secretKey;
+    private final JwtParser parser;
+    private final Duration accessTokenTtl;
+    private final long expirationMills;
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
-    private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
-    }
-
-    private long getExpirationMills() {
-        return 1000 * 60 * 60 * expirationHour;
+    public JwtService(
+            @Value("${jwt.secretKey}") String secretKey,
+            @Value("${jwt.access-token.expiration:15m}") Duration accessTokenTtl,
+            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize
+    ) {
+        this.secretKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(this.secretKey)
+                .build();
+        this.accessTokenTtl = accessTokenTtl;
+        this.expirationMills = accessTokenTtl.toMillis();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(Expiry.creating((String signature, VerifiedToken verified) -> verified.timeToLive()))
+                .build();
     }
 
     public String generateToken(String subject) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + getExpirationMills()))
-                .signWith(getSecretKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMills))
+                .signWith(secretKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public String generateToken(User user) {
+        return generateToken(user.getId(), user.getEmail(), user.getRoles(), user.getTokenVersion());
+    }
+
+    public String generateToken(Long userId, String email, Set<Role> userRoles, int tokenVersion) {
+        List<String> roles = userRoles
+                .stream()
+                .map(Role::getAuthority)
+                .toList();
+
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(email)
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_TOKEN_VERSION, tokenVersion)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMills))
+                .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getSubjectFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSecretKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
     }
 
-    public boolean validateToken(String token) {
+    public Optional<Claims> parseAndVerify(String token) {
+        int signatureStart = token.lastIndexOf('.');
+        if(signatureStart < 0) {
+            return Optional.empty();
+        }
+
+        String signature = token.substring(signatureStart + 1);
+        VerifiedToken cached = verifiedTokens.getIfPresent(signature);
+        if(cached != null && cached.token().equals(token) && !cached.isExpired()) {
+            return Optional.of(cached.claims());
+        }
+
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSecretKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return true;
-        } catch (Exception e) {
-            return false;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if(claims.getExpiration() != null) {
+                verifiedTokens.put(signature, new VerifiedToken(token, claims));
+            }
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private record VerifiedToken(String token, Claims claims) {
+
+        Duration timeToLive() {
+            long millis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return Duration.ofMillis(Math.max(millis, 0));
+        }
+
+        boolean isExpired() {
+            return claims.getExpiration().getTime() <= System.currentTimeMillis();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.example.Primeiro_Projeto.security;
+
+import com.example.Primeiro_Projeto.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class PasswordHashingExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    public enum Operation {
+        LOGIN, REGISTER
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore slots;
+    private final long timeoutNanos;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Operation, Timer> queueTimers = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> hashTimers = new EnumMap<>(Operation.class);
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${app.password-hashing.threads:0}") int threads,
+            @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.password-hashing.timeout:5s}") Duration timeout
+    ) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), threadFactory());
+        this.slots = new Semaphore(poolSize + queueCapacity);
+        this.timeoutNanos = timeout.toNanos();
+
+        for(Operation operation : Operation.values()) {
+            String tag = operation.name().toLowerCase();
+            queueTimers.put(operation, Timer.builder("password.hashing.queue").tag("operation", tag).register(meterRegistry));
+            hashTimers.put(operation, Timer.builder("password.hashing.duration").tag("operation", tag).register(meterRegistry));
+        }
+        this.rejected = meterRegistry.counter("password.hashing.rejected");
+        meterRegistry.gauge("password.hashing.queue.depth", executor, pool -> pool.getQueue().size());
+    }
+
+    public <T> T execute(Operation operation, Supplier<T> hashing) {
+        if(!slots.tryAcquire()) {
+            rejected.increment();
+            log.warn("Fila de hashing de senha cheia, recusando {}", operation);
+            throw new ServiceUnavailableException("serviço de autenticação sobrecarregado, tente novamente", RETRY_AFTER_SECONDS);
+        }
+
+        HashingTask<T> task = new HashingTask<>(operation, sequence.getAndIncrement(), hashing);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            rejected.increment();
+            throw new ServiceUnavailableException("serviço de autenticação indisponível", RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return task.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(false);
+            rejected.increment();
+            log.warn("Tempo de espera do hashing de senha excedido para {}", operation);
+            throw new ServiceUnavailableException("serviço de autenticação sobrecarregado, tente novamente", RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("hashing de senha interrompido", RETRY_AFTER_SECONDS);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if(e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class HashingTask<T> extends FutureTask<T> implements Comparable<HashingTask<?>> {
+
+        private final Operation operation;
+        private final long sequence;
+        private final long enqueuedAt = System.nanoTime();
+        private final AtomicBoolean slotClaimed;
+
+        private HashingTask(Operation operation, long sequence, Supplier<T> hashing) {
+            this(operation, sequence, hashing, new AtomicBoolean());
+        }
+
+        private HashingTask(Operation operation, long sequence, Supplier<T> hashing, AtomicBoolean slotClaimed) {
+            super(() -> {
+                if(!slotClaimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return hashTimers.get(operation).record(hashing);
+                } finally {
+                    slots.release();
+                }
+            });
+            this.operation = operation;
+            this.sequence = sequence;
+            this.slotClaimed = slotClaimed;
+        }
+
+        @Override
+        public void run() {
+            if(!isCancelled()) {
+                queueTimers.get(operation).record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            }
+            super.run();
+        }
+
+        @Override
+        protected void done() {
+            if(isCancelled() && slotClaimed.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+
+        @Override
+        public int compareTo(HashingTask<?> other) {
+            int byPriority = Integer.compare(operation.ordinal(), other.operation.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
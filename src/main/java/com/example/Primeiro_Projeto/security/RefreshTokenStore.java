@@ -0,0 +1,179 @@
+package com.example.Primeiro_Projeto.security;
+
+import com.example.Primeiro_Projeto.exceptions.UnauthorizedException;
+import com.example.Primeiro_Projeto.model.RefreshToken;
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.repositories.RefreshTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.UUID;
+
+@Component
+public class RefreshTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    public record Entry(Long id, UUID familyId, Long userId, String email, EnumSet<Role> roles, int tokenVersion, Instant expiresAt, boolean used) {
+
+        static Entry of(RefreshToken token) {
+            return new Entry(token.getId(), token.getFamilyId(), token.getUserId(), token.getEmail(),
+                    EnumSet.copyOf(token.getRoles()), token.getTokenVersion(), token.getExpiresAt(), token.isUsed());
+        }
+
+        boolean isExpired() {
+            return !expiresAt.isAfter(Instant.now());
+        }
+
+        Entry markUsed() {
+            return new Entry(id, familyId, userId, email, roles, tokenVersion, expiresAt, true);
+        }
+    }
+
+    public record IssuedToken(String token, Entry entry) {}
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final Duration timeToLive;
+    private final SecureRandom random = new SecureRandom();
+    private final Cache<String, Entry> index;
+    private final Cache<UUID, Boolean> revokedFamilies;
+
+    public RefreshTokenStore(
+            RefreshTokenRepository refreshTokenRepository,
+            TokenVersionRegistry tokenVersionRegistry,
+            @Value("${jwt.refresh-token.expiration:14d}") Duration timeToLive,
+            @Value("${jwt.refresh-token.index-size:100000}") long indexSize
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.timeToLive = timeToLive;
+        this.index = Caffeine.newBuilder()
+                .maximumSize(indexSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.revokedFamilies = Caffeine.newBuilder()
+                .maximumSize(indexSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    @Transactional
+    public IssuedToken issue(User user) {
+        refreshTokenRepository.deleteExpiredByUserId(user.getId(), Instant.now());
+        return save(UUID.randomUUID(), user.getId(), user.getEmail(), user.getRoles(), user.getTokenVersion());
+    }
+
+    @Transactional(dontRollbackOn = UnauthorizedException.class)
+    public IssuedToken rotate(String token) {
+        String tokenHash = hash(token);
+        Entry current = find(tokenHash);
+
+        if(current == null || current.isExpired()) {
+            throw new UnauthorizedException("refresh token inválido ou expirado");
+        }
+
+        if(current.used() || refreshTokenRepository.markUsed(current.id()) == 0) {
+            log.warn("Reuso de refresh token detectado, revogando família {}", current.familyId());
+            revokeFamily(current.familyId());
+            throw new UnauthorizedException("refresh token já utilizado, faça login novamente");
+        }
+        index.put(tokenHash, current.markUsed());
+
+        if(!tokenVersionRegistry.isCurrent(current.userId(), current.tokenVersion())) {
+            log.warn("Refresh token de versão antiga para o user {}, revogando família", current.userId());
+            revokeFamily(current.familyId());
+            throw new UnauthorizedException("sessão invalidada, faça login novamente");
+        }
+
+        return save(current.familyId(), current.userId(), current.email(), current.roles(), current.tokenVersion());
+    }
+
+    @Transactional
+    public void revoke(String token) {
+        Entry current = find(hash(token));
+        if(current != null) {
+            revokeFamily(current.familyId());
+            log.info("Família de refresh tokens {} revogada", current.familyId());
+        }
+    }
+
+    private Entry find(String tokenHash) {
+        Entry entry = index.getIfPresent(tokenHash);
+        if(entry == null) {
+            entry = load(tokenHash);
+        }
+        if(entry != null && revokedFamilies.getIfPresent(entry.familyId()) != null) {
+            index.invalidate(tokenHash);
+            return null;
+        }
+        return entry;
+    }
+
+    private Entry load(String tokenHash) {
+        Entry loaded = refreshTokenRepository.findByTokenHash(tokenHash)
+                .map(Entry::of)
+                .orElse(null);
+        if(loaded == null) {
+            return null;
+        }
+        Entry registered = index.asMap().putIfAbsent(tokenHash, loaded);
+        return registered != null ? registered : loaded;
+    }
+
+    private IssuedToken save(UUID familyId, Long userId, String email, EnumSet<Role> roles, int tokenVersion) {
+        String token = newToken();
+        RefreshToken saved = refreshTokenRepository.save(new RefreshToken(
+                null,
+                hash(token),
+                familyId,
+                userId,
+                email,
+                EnumSet.copyOf(roles),
+                tokenVersion,
+                Instant.now().plus(timeToLive),
+                false
+        ));
+
+        Entry entry = Entry.of(saved);
+        index.put(saved.getTokenHash(), entry);
+        return new IssuedToken(token, entry);
+    }
+
+    private void revokeFamily(UUID familyId) {
+        refreshTokenRepository.deleteByFamilyId(familyId);
+        revokedFamilies.put(familyId, Boolean.TRUE);
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.Primeiro_Projeto.security;
+
+import com.example.Primeiro_Projeto.model.RevokedToken;
+import com.example.Primeiro_Projeto.repositories.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final int BLOOM_HASHES = 4;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long bucketMillis;
+    private final int bloomBits;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final Map<String, Long> beyondHorizon = new ConcurrentHashMap<>();
+
+    public TokenRevocationList(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${jwt.access-token.expiration:15m}") Duration accessTokenTtl,
+            @Value("${app.revocation.bucket-width:1m}") Duration bucketWidth,
+            @Value("${app.revocation.bloom-bits-per-bucket:65536}") int bloomBitsPerBucket
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.bucketMillis = bucketWidth.toMillis();
+        this.bloomBits = Math.max(64, Integer.highestOneBit(bloomBitsPerBucket - 1) << 1);
+        this.buckets = new AtomicReferenceArray<>((int) Math.ceilDiv(accessTokenTtl.toMillis(), bucketMillis) + 2);
+    }
+
+    @PostConstruct
+    public void load() {
+        int loaded = 0;
+        for(RevokedToken revoked : revokedTokenRepository.findByExpiresAtAfter(Instant.now())) {
+            remember(revoked.getJti(), revoked.getExpiresAt().toEpochMilli());
+            loaded++;
+        }
+        log.info("{} tokens revogados carregados", loaded);
+    }
+
+    @Transactional
+    public void revoke(String jti, Instant expiresAt) {
+        Instant now = Instant.now();
+        if(jti == null || !expiresAt.isAfter(now)) {
+            return;
+        }
+
+        revokedTokenRepository.deleteExpired(now);
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        remember(jti, expiresAt.toEpochMilli());
+        log.info("Token {} revogado até {}", jti, expiresAt);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        Object expiration = claims.get(Claims.EXPIRATION);
+        if(jti == null || !(expiration instanceof Number seconds)) {
+            return false;
+        }
+
+        return isRevoked(jti, seconds.longValue() * 1000);
+    }
+
+    boolean isRevoked(String jti, long expiresAtMillis) {
+        if(!beyondHorizon.isEmpty() && beyondHorizon.containsKey(jti)) {
+            return true;
+        }
+
+        long index = bucketIndex(expiresAtMillis);
+        Bucket bucket = buckets.get(slot(index));
+        if(bucket == null || bucket.index != index) {
+            return false;
+        }
+
+        long hash = hash(jti);
+        return bucket.mightContain(hash) && bucket.ids.contains(jti);
+    }
+
+    private void remember(String jti, long expiresAtMillis) {
+        long index = bucketIndex(expiresAtMillis);
+        if(index - bucketIndex(System.currentTimeMillis()) >= buckets.length()) {
+            beyondHorizon.values().removeIf(expiry -> expiry <= System.currentTimeMillis());
+            beyondHorizon.put(jti, expiresAtMillis);
+            return;
+        }
+
+        Bucket bucket = bucketFor(index);
+        bucket.ids.add(jti);
+        bucket.put(hash(jti));
+    }
+
+    private Bucket bucketFor(long index) {
+        int slot = slot(index);
+        while(true) {
+            Bucket current = buckets.get(slot);
+            if(current != null && current.index == index) {
+                return current;
+            }
+            if(current != null && current.index > index) {
+                throw new IllegalStateException("bucket de revogação já reciclado para um período posterior");
+            }
+
+            Bucket created = new Bucket(index, bloomBits);
+            if(buckets.compareAndSet(slot, current, created)) {
+                return created;
+            }
+        }
+    }
+
+    private long bucketIndex(long epochMillis) {
+        return Math.ceilDiv(epochMillis, bucketMillis);
+    }
+
+    private int slot(long index) {
+        return (int) Math.floorMod(index, (long) buckets.length());
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for(int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Bucket {
+
+        private final long index;
+        private final int mask;
+        private final AtomicLongArray bits;
+        private final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        private Bucket(long index, int bloomBits) {
+            this.index = index;
+            this.mask = bloomBits - 1;
+            this.bits = new AtomicLongArray(bloomBits >>> 6);
+        }
+
+        private void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for(int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long word;
+                do {
+                    word = bits.get(bit >>> 6);
+                } while(!bits.compareAndSet(bit >>> 6, word, word | (1L << bit)));
+            }
+        }
+
+        private boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for(int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
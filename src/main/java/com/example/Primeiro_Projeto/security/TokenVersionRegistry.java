@@ -0,0 +1,79 @@
+package com.example.Primeiro_Projeto.security;
+
+import com.example.Primeiro_Projeto.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class TokenVersionRegistry {
+
+    private static final int UNKNOWN_USER = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> versions;
+    private final AtomicLong writes = new AtomicLong();
+
+    public TokenVersionRegistry(
+            UserRepository userRepository,
+            @Value("${jwt.token-version.cache-size:100000}") long cacheSize
+    ) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer current = versions.getIfPresent(userId);
+        if(current == null) {
+            current = load(userId);
+        }
+        return current != UNKNOWN_USER && current == tokenVersion;
+    }
+
+    public void update(Long userId, int tokenVersion) {
+        afterCommit(() -> {
+            writes.incrementAndGet();
+            versions.put(userId, tokenVersion);
+        });
+    }
+
+    public void remove(Long userId) {
+        afterCommit(() -> {
+            writes.incrementAndGet();
+            versions.invalidate(userId);
+        });
+    }
+
+    private int load(Long userId) {
+        long stamp = writes.get();
+        int loaded = userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+        Integer registered = versions.asMap().putIfAbsent(userId, loaded);
+        if(registered != null) {
+            return registered;
+        }
+        if(writes.get() != stamp) {
+            versions.asMap().remove(userId, loaded);
+        }
+        return loaded;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
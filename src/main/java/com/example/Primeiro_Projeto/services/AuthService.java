@@ -1,20 +1,24 @@
 package com.example.Primeiro_Projeto.services;
 
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
 import com.example.Primeiro_Projeto.config.LogMessages;
 import com.example.Primeiro_Projeto.dtos.LoginRequestDTO;
+import com.example.Primeiro_Projeto.dtos.RefreshTokenRequestDTO;
+import com.example.Primeiro_Projeto.dtos.TokenResponseDTO;
 import com.example.Primeiro_Projeto.dtos.UserRequestDTO;
 import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
 import com.example.Primeiro_Projeto.exceptions.ConflictException;
 import com.example.Primeiro_Projeto.exceptions.ResourceNotFoundException;
+import com.example.Primeiro_Projeto.exceptions.UnauthorizedException;
 import com.example.Primeiro_Projeto.model.Role;
 import com.example.Primeiro_Projeto.model.User;
 import com.example.Primeiro_Projeto.repositories.UserRepository;
 import com.example.Primeiro_Projeto.security.JwtService;
-import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
+import com.example.Primeiro_Projeto.security.RefreshTokenStore;
+import com.example.Primeiro_Projeto.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -28,23 +32,25 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final ModelMapper modelMapper;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocationList tokenRevocationList;
+    private final CacheInvalidator cacheInvalidator;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, ModelMapper modelMapper, JwtService jwtService, AuthenticationManager authenticationManager) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager, RefreshTokenStore refreshTokenStore, TokenRevocationList tokenRevocationList, CacheInvalidator cacheInvalidator) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.modelMapper = modelMapper;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenStore = refreshTokenStore;
+        this.tokenRevocationList = tokenRevocationList;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
-    @Transactional
-    @CacheEvict(value = {"allUsers", "usersPage"}, allEntries = true)
     public UserResponseDTO register(UserRequestDTO request) {
         log.info(LogMessages.RESOURCE_CREATE, "user");
-        User user = modelMapper.map(request, User.class);
+        User user = request.toEntity();
 
         if(userRepository.existsByEmail(user.getEmail())) {
             log.warn("email {} já está em uso", user.getEmail());
@@ -56,11 +62,12 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
         User userSaved = userRepository.save(user);
+        cacheInvalidator.usersAdded();
         log.info(LogMessages.OPERATION_SUCCESS, "saveUser");
-        return new UserResponseDTO(userSaved);
+        return new UserResponseDTO(userSaved, 0);
     }
 
-    public String login(LoginRequestDTO request) {
+    public TokenResponseDTO login(LoginRequestDTO request) {
         log.info(" Fazendo login do user");
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -75,8 +82,39 @@ public class AuthService {
                     return new ResourceNotFoundException("User", "email", request.getEmail());
                 });
 
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(user);
+        RefreshTokenStore.IssuedToken refreshToken = refreshTokenStore.issue(user);
         log.info(" Login realizado com sucesso");
-        return token;
+        return toTokenResponse(token, refreshToken);
+    }
+
+    public TokenResponseDTO refresh(RefreshTokenRequestDTO request) {
+        log.info(" Renovando access token");
+        RefreshTokenStore.IssuedToken refreshToken = refreshTokenStore.rotate(request.getRefreshToken());
+        RefreshTokenStore.Entry entry = refreshToken.entry();
+
+        String token = jwtService.generateToken(entry.userId(), entry.email(), entry.roles(), entry.tokenVersion());
+        log.info(" Access token renovado com sucesso");
+        return toTokenResponse(token, refreshToken);
+    }
+
+    public void logout(String authorization, String refreshToken) {
+        log.info(" Fazendo logout do user");
+        if(authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new UnauthorizedException("access token ausente");
+        }
+
+        Claims claims = jwtService.parseAndVerify(authorization.substring(7))
+                .orElseThrow(() -> new UnauthorizedException("access token inválido ou expirado"));
+        tokenRevocationList.revoke(claims.getId(), claims.getExpiration().toInstant());
+
+        if(refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenStore.revoke(refreshToken);
+        }
+        log.info(" Logout realizado com sucesso");
+    }
+
+    private TokenResponseDTO toTokenResponse(String accessToken, RefreshTokenStore.IssuedToken refreshToken) {
+        return new TokenResponseDTO(accessToken, refreshToken.token(), "Bearer", jwtService.getAccessTokenTtl().toSeconds());
     }
 }
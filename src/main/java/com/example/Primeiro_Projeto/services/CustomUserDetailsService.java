@@ -1,9 +1,14 @@
 package com.example.Primeiro_Projeto.services;
 
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
 import com.example.Primeiro_Projeto.model.Role;
 import com.example.Primeiro_Projeto.model.User;
 import com.example.Primeiro_Projeto.repositories.UserRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,12 +16,16 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UserRepository userRepository;
+    private final CacheInvalidator cacheInvalidator;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, CacheInvalidator cacheInvalidator) {
         this.userRepository = userRepository;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
     @Override
@@ -35,4 +44,17 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .roles(rolesStr.toArray(new String[0]))
                 .build();
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        userRepository.findIdByEmail(user.getUsername())
+                .ifPresent(id -> cacheInvalidator.usersChanged(List.of(id)));
+        log.info("Hash de senha atualizado para o custo configurado");
+
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+}
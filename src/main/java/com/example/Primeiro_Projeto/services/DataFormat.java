@@ -0,0 +1,44 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.exceptions.BadRequestException;
+import org.springframework.http.MediaType;
+
+public enum DataFormat {
+    CSV(MediaType.parseMediaType("text/csv"), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    DataFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static DataFormat fromContentType(String contentType) {
+        MediaType requested = MediaType.parseMediaType(contentType);
+        for(DataFormat format : values()) {
+            if(requested.isCompatibleWith(format.mediaType)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("formato não suportado: " + contentType);
+    }
+
+    public static DataFormat fromName(String name) {
+        for(DataFormat format : values()) {
+            if(format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("formato não suportado: " + name);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.config.LogMessages;
+import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
+import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.repositories.AssociationCount;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.example.Primeiro_Projeto.repositories.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final String USERS_CSV_HEADER = "id,username,email,roles,productCount";
+    private static final String PRODUCTS_CSV_HEADER = "id,name,price,userCount";
+
+    private final EntityManager entityManager;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+
+    public ExportService(
+            EntityManager entityManager,
+            UserRepository userRepository,
+            ProductRepository productRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.export.fetch-size:500}") int fetchSize
+    ) {
+        this.entityManager = entityManager;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void exportUsers(OutputStream output, DataFormat format) {
+        log.info(LogMessages.RESOURCE_LIST_ALL, "users");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = stream("SELECT u.id, u.username, u.email, u.roles, u.version FROM User u ORDER BY u.id")) {
+                if(format == DataFormat.CSV) {
+                    writeLine(writer, USERS_CSV_HEADER);
+                    flush(writer);
+                }
+
+                forEachBatch(rows, batch -> {
+                    List<Long> ids = batch.stream().map(row -> (Long) row[0]).toList();
+                    Map<Long, Long> productCounts = toCountMap(userRepository.countProductsByUserIds(ids));
+
+                    for(Object[] row : batch) {
+                        Long id = (Long) row[0];
+                        UserResponseDTO user = new UserResponseDTO(id, (String) row[1], (String) row[2], (EnumSet<Role>) row[3], productCounts.getOrDefault(id, 0L), (Long) row[4]);
+                        writeLine(writer, format == DataFormat.CSV ? toCsv(user) : toJson(user));
+                    }
+                    flush(writer);
+                });
+            }
+        });
+        flush(writer);
+        log.info(LogMessages.OPERATION_SUCCESS, "exportUsers");
+    }
+
+    public void exportProducts(OutputStream output, DataFormat format) {
+        log.info(LogMessages.RESOURCE_LIST_ALL, "products");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = stream("SELECT p.id, p.name, p.price, p.version FROM Product p ORDER BY p.id")) {
+                if(format == DataFormat.CSV) {
+                    writeLine(writer, PRODUCTS_CSV_HEADER);
+                    flush(writer);
+                }
+
+                forEachBatch(rows, batch -> {
+                    List<Long> ids = batch.stream().map(row -> (Long) row[0]).toList();
+                    Map<Long, Long> userCounts = toCountMap(productRepository.countUsersByProductIds(ids));
+
+                    for(Object[] row : batch) {
+                        Long id = (Long) row[0];
+                        ProductResponseDTO product = new ProductResponseDTO(id, (String) row[1], (Double) row[2], userCounts.getOrDefault(id, 0L), (Long) row[3]);
+                        writeLine(writer, format == DataFormat.CSV ? toCsv(product) : toJson(product));
+                    }
+                    flush(writer);
+                });
+            }
+        });
+        flush(writer);
+        log.info(LogMessages.OPERATION_SUCCESS, "exportProducts");
+    }
+
+    private Stream<Object[]> stream(String query) {
+        return entityManager.createQuery(query, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private <T> void forEachBatch(Stream<T> rows, Consumer<List<T>> consumer) {
+        Iterator<T> iterator = rows.iterator();
+        List<T> batch = new ArrayList<>(fetchSize);
+        while(iterator.hasNext()) {
+            batch.add(iterator.next());
+            if(batch.size() == fetchSize) {
+                consumer.accept(batch);
+                batch.clear();
+                entityManager.clear();
+            }
+        }
+
+        if(!batch.isEmpty()) {
+            consumer.accept(batch);
+            entityManager.clear();
+        }
+    }
+
+    private Map<Long, Long> toCountMap(List<AssociationCount> counts) {
+        return counts.stream().collect(Collectors.toMap(AssociationCount::getId, AssociationCount::getTotal));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toCsv(UserResponseDTO user) {
+        String roles = user.getRoles().stream().map(Role::name).collect(Collectors.joining("|"));
+        return String.join(",", String.valueOf(user.getId()), csv(user.getUsername()), csv(user.getEmail()), roles, String.valueOf(user.getProductCount()));
+    }
+
+    private String toCsv(ProductResponseDTO product) {
+        return String.join(",", String.valueOf(product.getId()), csv(product.getName()), String.valueOf(product.getPrice()), String.valueOf(product.getUserCount()));
+    }
+
+    private String csv(String value) {
+        if(value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(Writer writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.dtos.CursorPageDTO;
+import com.example.Primeiro_Projeto.exceptions.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+public record KeysetCursor(String sort, Sort.Direction direction, Long id, String value) {
+
+    public static final int MAX_SIZE = 100;
+
+    public String encode() {
+        String raw = sort + ":" + direction.name() + ":" + id + ":" + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor, String sort, Sort.Direction direction) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+
+            if(parts.length != 4 || !parts[0].equals(sort) || !parts[1].equals(direction.name())) {
+                throw new BadRequestException("cursor inválido para sort '" + sort + "' e direction '" + direction + "'");
+            }
+
+            return new KeysetCursor(parts[0], direction, Long.valueOf(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("cursor inválido");
+        }
+    }
+
+    public static Pageable firstPage(String sort, Sort.Direction direction, int size) {
+        Sort order = "id".equals(sort)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sort).and(Sort.by(direction, "id"));
+        return PageRequest.of(0, size, order);
+    }
+
+    public static void requireValidSize(int size) {
+        if(size < 1 || size > MAX_SIZE) {
+            throw new BadRequestException("size deve estar entre 1 e " + MAX_SIZE);
+        }
+    }
+
+    public static void requireSupportedSort(String sort, List<String> supported) {
+        if(!supported.contains(sort)) {
+            throw new BadRequestException("sort '" + sort + "' não suportado, use " + supported);
+        }
+    }
+
+    public static <E, D> CursorPageDTO<D> toCursorPage(
+            Slice<E> slice,
+            String sort,
+            Sort.Direction direction,
+            Function<E, D> mapper,
+            Function<E, Long> idOf,
+            Function<E, String> sortValueOf
+    ) {
+        List<E> content = slice.getContent();
+        String nextCursor = null;
+
+        if(slice.hasNext() && !content.isEmpty()) {
+            E last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(sort, direction, idOf.apply(last), sortValueOf.apply(last)).encode();
+        }
+
+        return new CursorPageDTO<>(
+                content.stream().map(mapper).toList(),
+                content.size(),
+                slice.hasNext(),
+                nextCursor
+        );
+    }
+
+    public static Sort.Direction parseDirection(String direction) {
+        return "asc".equalsIgnoreCase(direction)
+                ? Sort.Direction.ASC
+                : Sort.Direction.DESC;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.config.PageCacheGenerations;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class PageCachePrewarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(PageCachePrewarmer.class);
+
+    private static final Map<String, String> PAGE_CACHES = Map.of(
+            PageCacheGenerations.PRODUCTS, "productsPage",
+            PageCacheGenerations.USERS, "usersPage"
+    );
+
+    private final PageCacheGenerations pageCacheGenerations;
+    private final CacheManager cacheManager;
+    private final ProductService productService;
+    private final UserService userService;
+    private final long delayMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+    public PageCachePrewarmer(
+            PageCacheGenerations pageCacheGenerations,
+            CacheManager cacheManager,
+            ProductService productService,
+            UserService userService,
+            @Value("${app.page-cache.prewarm-delay:250ms}") Duration delay
+    ) {
+        this.pageCacheGenerations = pageCacheGenerations;
+        this.cacheManager = cacheManager;
+        this.productService = productService;
+        this.userService = userService;
+        this.delayMillis = delay.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "page-cache-prewarm");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pageCacheGenerations.onAdvance(this::schedule);
+    }
+
+    private void schedule(String type) {
+        pending.computeIfAbsent(type, t -> scheduler.schedule(() -> refresh(t), delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private void refresh(String type) {
+        pending.remove(type);
+        purgeOldGenerations(type);
+        for(Pageable pageable : pageCacheGenerations.firstPages(type)) {
+            try {
+                if(PageCacheGenerations.PRODUCTS.equals(type)) {
+                    productService.getProductsPaginated(pageable);
+                } else {
+                    userService.getUserPaginated(pageable);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Falha ao preaquecer página {} de {}: {}", pageable, type, e.getMessage());
+            }
+        }
+    }
+
+    private void purgeOldGenerations(String type) {
+        Cache cache = cacheManager.getCache(PAGE_CACHES.get(type));
+        if(cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            long current = pageCacheGenerations.current(type);
+            nativeCache.asMap().keySet().removeIf(key -> key instanceof PageCacheGenerations.PageKey pageKey && pageKey.generation() < current);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.config.CacheRefreshLoader;
+import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductCacheLoader implements CacheRefreshLoader {
+
+    private final ProductRepository productRepository;
+
+    public ProductCacheLoader(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public String cacheName() {
+        return "productId";
+    }
+
+    @Override
+    @Transactional
+    public Object load(Object key) {
+        return productRepository.findById((Long) key)
+                .map(product -> new ProductResponseDTO(product, productRepository.countUsersByProductId(product.getId())))
+                .orElse(null);
+    }
+}
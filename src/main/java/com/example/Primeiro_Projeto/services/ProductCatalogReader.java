@@ -0,0 +1,89 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
+import com.example.Primeiro_Projeto.exceptions.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Service
+public class ProductCatalogReader {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final ProductService productService;
+    private final ThreadPoolExecutor executor;
+
+    public ProductCatalogReader(
+            ProductService productService,
+            @Value("${app.catalog-read.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+            @Value("${app.catalog-read.queue-capacity:10000}") int queueCapacity
+    ) {
+        this.productService = productService;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "catalog-read-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    public CompletableFuture<List<ProductResponseDTO>> listAllProducts() {
+        return submit(productService::listAllProducts);
+    }
+
+    public CompletableFuture<Page<ProductResponseDTO>> getProductsPaginated(Pageable pageable) {
+        return submit(() -> productService.getProductsPaginated(pageable));
+    }
+
+    public CompletableFuture<ProductResponseDTO> getProductById(Long id) {
+        return submit(() -> productService.getProductById(id));
+    }
+
+    public CompletableFuture<ProductResponseDTO> getProductByName(String name) {
+        return submit(() -> productService.getProductByName(name));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> read) {
+        try {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            return CompletableFuture.supplyAsync(() -> {
+                RequestContextHolder.setRequestAttributes(attributes);
+                try {
+                    return read.get();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ServiceUnavailableException("catálogo sobrecarregado, tente novamente", RETRY_AFTER_SECONDS));
+        }
+    }
+}
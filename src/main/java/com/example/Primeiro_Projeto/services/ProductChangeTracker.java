@@ -0,0 +1,139 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.model.ChangeCounter;
+import com.example.Primeiro_Projeto.model.ProductTombstone;
+import com.example.Primeiro_Projeto.repositories.ChangeCounterRepository;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.example.Primeiro_Projeto.repositories.ProductTombstoneRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ProductChangeTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeTracker.class);
+
+    static final String TOMBSTONE_HORIZON = "product_tombstones";
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ChangeCounterRepository changeCounterRepository;
+    private final ConcurrentSkipListMap<Long, Integer> inFlight = new ConcurrentSkipListMap<>();
+    private final AtomicLong highestAllocated = new AtomicLong();
+
+    public ProductChangeTracker(
+            ProductRepository productRepository,
+            ProductTombstoneRepository productTombstoneRepository,
+            ChangeCounterRepository changeCounterRepository
+    ) {
+        this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.changeCounterRepository = changeCounterRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        productRepository.createChangeSeqIfAbsent();
+        if(changeCounterRepository.existsById(TOMBSTONE_HORIZON)) {
+            return;
+        }
+
+        try {
+            changeCounterRepository.save(new ChangeCounter(TOMBSTONE_HORIZON, 0));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Horizonte de tombstones de products já iniciado por outra instância");
+        }
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public long next() {
+        return reserve(1).get(0);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public List<Long> reserve(int count) {
+        trackInFlight();
+        List<Long> changeSeqs = productRepository.nextChangeSeqs(count);
+        highestAllocated.accumulateAndGet(changeSeqs.get(changeSeqs.size() - 1), Math::max);
+        return changeSeqs;
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordDeletion(Long productId) {
+        productTombstoneRepository.save(new ProductTombstone(productId, next(), Instant.now()));
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordLinkChanges(Collection<Long> productIds) {
+        restamp(productIds.stream().distinct().sorted().toList());
+    }
+
+    public long visibleThrough() {
+        Long own = (Long) TransactionSynchronizationManager.getResource(this);
+        for(Map.Entry<Long, Integer> entry : inFlight.entrySet()) {
+            if(!entry.getKey().equals(own) || entry.getValue() > 1) {
+                return entry.getKey() - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public long prunedThrough() {
+        return changeCounterRepository.findById(TOMBSTONE_HORIZON)
+                .map(ChangeCounter::getValue)
+                .orElse(0L);
+    }
+
+    @Transactional
+    public int pruneTombstones(Instant cutoff) {
+        Long expired = productTombstoneRepository.findMaxChangeSeqDeletedBefore(cutoff);
+        if(expired == null) {
+            return 0;
+        }
+
+        ChangeCounter horizon = changeCounterRepository.findWithLockByName(TOMBSTONE_HORIZON)
+                .orElseThrow(() -> new IllegalStateException("horizonte de tombstones de products não iniciado"));
+        horizon.setValue(Math.max(horizon.getValue(), expired));
+        int removed = productTombstoneRepository.deleteUpToChangeSeq(horizon.getValue());
+        List<Long> behindHorizon = productRepository.findIdsUpToChangeSeq(horizon.getValue());
+        restamp(behindHorizon);
+        log.info("{} tombstones de products removidos e {} products reposicionados após changeSeq {}", removed, behindHorizon.size(), horizon.getValue());
+        return removed;
+    }
+
+    private void restamp(List<Long> sortedIds) {
+        if(!sortedIds.isEmpty()) {
+            productRepository.updateChangeSeqs(sortedIds, reserve(sortedIds.size()));
+        }
+    }
+
+    private void trackInFlight() {
+        if(TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+
+        long floor = highestAllocated.get() + 1;
+        inFlight.merge(floor, 1, Integer::sum);
+        TransactionSynchronizationManager.bindResource(this, floor);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ProductChangeTracker.this);
+                inFlight.computeIfPresent(floor, (key, count) -> count == 1 ? null : count - 1);
+            }
+        });
+    }
+}
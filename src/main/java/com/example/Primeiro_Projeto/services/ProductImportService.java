@@ -0,0 +1,360 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
+import com.example.Primeiro_Projeto.config.CatalogGeneration;
+import com.example.Primeiro_Projeto.config.LogMessages;
+import com.example.Primeiro_Projeto.dtos.ProductImportErrorDTO;
+import com.example.Primeiro_Projeto.dtos.ProductImportReportDTO;
+import com.example.Primeiro_Projeto.dtos.ProductRequestDTO;
+import com.example.Primeiro_Projeto.exceptions.BadRequestException;
+import com.example.Primeiro_Projeto.exceptions.ServiceUnavailableException;
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    private record ImportRow(long line, ProductRequestDTO product) {}
+
+    private record CsvColumns(int name, int price, int count) {}
+
+    private final ProductRepository productRepository;
+    private final ProductChangeTracker productChangeTracker;
+    private final CatalogGeneration catalogGeneration;
+    private final CacheInvalidator cacheInvalidator;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxRecordLength;
+    private final Semaphore importPermits;
+    private final Counter importedRows;
+    private final Counter duplicateRows;
+    private final Counter rejectedRows;
+    private final Timer chunkTimer;
+
+    public ProductImportService(
+            ProductRepository productRepository,
+            ProductChangeTracker productChangeTracker,
+            CatalogGeneration catalogGeneration,
+            CacheInvalidator cacheInvalidator,
+            Validator validator,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.import.chunk-size:1000}") int chunkSize,
+            @Value("${app.import.max-concurrent:2}") int maxConcurrent,
+            @Value("${app.import.max-record-length:65536}") int maxRecordLength
+    ) {
+        this.productRepository = productRepository;
+        this.productChangeTracker = productChangeTracker;
+        this.catalogGeneration = catalogGeneration;
+        this.cacheInvalidator = cacheInvalidator;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRecordLength = maxRecordLength;
+        this.importPermits = new Semaphore(maxConcurrent);
+        this.importedRows = meterRegistry.counter("products.import.rows", "result", "imported");
+        this.duplicateRows = meterRegistry.counter("products.import.rows", "result", "duplicate");
+        this.rejectedRows = meterRegistry.counter("products.import.rows", "result", "rejected");
+        this.chunkTimer = meterRegistry.timer("products.import.chunk");
+        meterRegistry.gauge("products.import.active", importPermits, permits -> maxConcurrent - permits.availablePermits());
+    }
+
+    public ProductImportReportDTO importProducts(InputStream body, DataFormat format) {
+        log.info(LogMessages.RESOURCE_CREATE + " - " + LogMessages.CACHE_CLEANING, "products", "importProducts");
+        if(!importPermits.tryAcquire()) {
+            log.warn("Limite de importações simultâneas atingido");
+            throw new ServiceUnavailableException("limite de importações simultâneas atingido, tente novamente mais tarde", RETRY_AFTER_SECONDS);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            ProductImportReportDTO report = readAndImport(reader, format);
+            log.info(LogMessages.OPERATION_SUCCESS, "importProducts");
+            return report;
+        } catch (IOException e) {
+            log.warn(LogMessages.OPERATION_FAILED, "importProducts");
+            throw new BadRequestException("falha ao ler o arquivo de importação: " + e.getMessage());
+        } finally {
+            catalogGeneration.bump();
+            importPermits.release();
+        }
+    }
+
+    private ProductImportReportDTO readAndImport(BufferedReader reader, DataFormat format) throws IOException {
+        ProductImportReportDTO report = new ProductImportReportDTO();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        RecordReader records = new RecordReader(reader, format == DataFormat.CSV, maxRecordLength);
+        CsvColumns columns = null;
+
+        String line;
+        while((line = records.next()) != null) {
+            long lineNumber = records.startLine();
+            if(!records.truncated() && line.isBlank()) {
+                continue;
+            }
+
+            if(format == DataFormat.CSV && columns == null) {
+                if(records.truncated()) {
+                    throw new BadRequestException("cabeçalho CSV excede " + maxRecordLength + " caracteres");
+                }
+                columns = parseHeader(line);
+                continue;
+            }
+
+            report.setProcessed(report.getProcessed() + 1);
+            try {
+                if(records.truncated()) {
+                    throw new IllegalArgumentException("registro excede " + maxRecordLength + " caracteres");
+                }
+                ProductRequestDTO product = format == DataFormat.CSV
+                        ? parseCsvRow(line, columns)
+                        : objectMapper.readValue(line, ProductRequestDTO.class);
+                if(product == null) {
+                    throw new IllegalArgumentException("registro vazio");
+                }
+                chunk.add(new ImportRow(lineNumber, product));
+            } catch (JacksonException e) {
+                reject(report, lineNumber, "linha inválida: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                reject(report, lineNumber, "linha inválida: " + e.getMessage());
+            }
+
+            if(chunk.size() >= chunkSize) {
+                writeChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+
+        if(!chunk.isEmpty()) {
+            writeChunk(chunk, report);
+        }
+
+        return report;
+    }
+
+    private void writeChunk(List<ImportRow> chunk, ProductImportReportDTO report) {
+        chunkTimer.record(() -> {
+            Map<String, ImportRow> candidates = new LinkedHashMap<>();
+            for(ImportRow row : chunk) {
+                Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(row.product());
+                if(!violations.isEmpty()) {
+                    reject(report, row.line(), violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                } else if(candidates.putIfAbsent(row.product().getName(), row) != null) {
+                    duplicate(report, row);
+                }
+            }
+
+            if(candidates.isEmpty()) {
+                return;
+            }
+
+            for(String name : productRepository.findExistingNames(candidates.keySet())) {
+                duplicate(report, candidates.remove(name));
+            }
+
+            List<Product> products = candidates.values().stream()
+                    .map(row -> row.product().toEntity())
+                    .toList();
+            if(products.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Long> changeSeqs = productChangeTracker.reserve(products.size());
+                    for(int i = 0; i < products.size(); i++) {
+                        products.get(i).setChangeSeq(changeSeqs.get(i));
+                    }
+                    productRepository.saveAll(products);
+                    cacheInvalidator.productsAdded();
+                });
+                report.setImported(report.getImported() + products.size());
+                importedRows.increment(products.size());
+            } catch (DataIntegrityViolationException e) {
+                log.warn(LogMessages.OPERATION_FAILED, "importProducts - lote com name gravado concorrentemente");
+                candidates.values().forEach(row -> reject(report, row.line(), "lote não gravado: name já cadastrado por outra operação"));
+            }
+        });
+
+        log.info("Importação de products: {} linhas processadas, {} importadas", report.getProcessed(), report.getImported());
+    }
+
+    private CsvColumns parseHeader(String line) {
+        List<String> header = parseCsvLine(line).stream()
+                .map(column -> column.trim().toLowerCase())
+                .toList();
+        int name = header.indexOf("name");
+        int price = header.indexOf("price");
+        if(name < 0 || price < 0) {
+            throw new BadRequestException("cabeçalho CSV deve conter as colunas name e price");
+        }
+        return new CsvColumns(name, price, header.size());
+    }
+
+    private ProductRequestDTO parseCsvRow(String line, CsvColumns columns) {
+        List<String> fields = parseCsvLine(line);
+        if(fields.size() != columns.count()) {
+            throw new IllegalArgumentException("esperadas " + columns.count() + " colunas, encontradas " + fields.size());
+        }
+
+        String price = fields.get(columns.price()).trim();
+        return new ProductRequestDTO(fields.get(columns.name()), price.isEmpty() ? null : Double.valueOf(price));
+    }
+
+    private List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for(int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(quoted) {
+                if(c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if(c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if(c == '"') {
+                quoted = true;
+            } else if(c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if(quoted) {
+            throw new IllegalArgumentException("aspas não fechadas");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class RecordReader {
+
+        private final BufferedReader reader;
+        private final boolean quotedNewlines;
+        private final int maxLength;
+        private final StringBuilder record = new StringBuilder();
+        private long line;
+        private long startLine;
+        private boolean truncated;
+
+        private RecordReader(BufferedReader reader, boolean quotedNewlines, int maxLength) {
+            this.reader = reader;
+            this.quotedNewlines = quotedNewlines;
+            this.maxLength = maxLength;
+        }
+
+        private String next() throws IOException {
+            record.setLength(0);
+            truncated = false;
+            startLine = line + 1;
+            boolean quoted = false;
+            boolean read = false;
+
+            int c;
+            while((c = reader.read()) != -1) {
+                read = true;
+                if(c == '\n') {
+                    line++;
+                    if(!quoted) {
+                        return finish();
+                    }
+                } else if(c == '"' && quotedNewlines) {
+                    quoted = !quoted;
+                }
+
+                if(record.length() < maxLength) {
+                    record.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+
+            if(!read) {
+                return null;
+            }
+            line++;
+            return finish();
+        }
+
+        private String finish() {
+            int length = record.length();
+            if(length > 0 && record.charAt(length - 1) == '\r') {
+                record.setLength(length - 1);
+            }
+            return record.toString();
+        }
+
+        private long startLine() {
+            return startLine;
+        }
+
+        private boolean truncated() {
+            return truncated;
+        }
+    }
+
+    private void duplicate(ProductImportReportDTO report, ImportRow row) {
+        report.setDuplicates(report.getDuplicates() + 1);
+        duplicateRows.increment();
+        addError(report, row.line(), "name '" + row.product().getName() + "' já está em uso");
+    }
+
+    private void reject(ProductImportReportDTO report, long line, String message) {
+        report.setRejected(report.getRejected() + 1);
+        rejectedRows.increment();
+        addError(report, line, message);
+    }
+
+    private void addError(ProductImportReportDTO report, long line, String message) {
+        if(report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ProductImportErrorDTO(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+}
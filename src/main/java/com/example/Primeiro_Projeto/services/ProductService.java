@@ -1,78 +1,201 @@
 package com.example.Primeiro_Projeto.services;
 
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
+import com.example.Primeiro_Projeto.config.CatalogGeneration;
 import com.example.Primeiro_Projeto.config.LogMessages;
+import com.example.Primeiro_Projeto.dtos.CursorPageDTO;
+import com.example.Primeiro_Projeto.dtos.ProductChangesDTO;
 import com.example.Primeiro_Projeto.dtos.ProductRequestDTO;
 import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
 import com.example.Primeiro_Projeto.dtos.ProductUpdateRequestDTO;
+import com.example.Primeiro_Projeto.dtos.UserFromProductDTO;
+import com.example.Primeiro_Projeto.exceptions.BadRequestException;
 import com.example.Primeiro_Projeto.exceptions.ConflictException;
+import com.example.Primeiro_Projeto.exceptions.GoneException;
 import com.example.Primeiro_Projeto.exceptions.ResourceNotFoundException;
 import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.model.ProductTombstone;
+import com.example.Primeiro_Projeto.repositories.AssociationCount;
 import com.example.Primeiro_Projeto.repositories.ProductRepository;
-import org.modelmapper.ModelMapper;
+import com.example.Primeiro_Projeto.repositories.ProductTombstoneRepository;
+import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Transactional
 public class ProductService {
 
     private static final Logger log = LoggerFactory.getLogger(ProductService.class);
 
+    private static final List<String> CURSOR_SORTS = List.of("id", "name", "price");
+    private static final int MAX_CHANGES_SIZE = 1000;
+
     private final ProductRepository productRepository;
-    private final ModelMapper modelMapper;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ProductChangeTracker productChangeTracker;
+    private final CatalogGeneration catalogGeneration;
+    private final CacheInvalidator cacheInvalidator;
 
-    public ProductService(ProductRepository productRepository, ModelMapper modelMapper) {
+    public ProductService(
+            ProductRepository productRepository,
+            ProductTombstoneRepository productTombstoneRepository,
+            ProductChangeTracker productChangeTracker,
+            CatalogGeneration catalogGeneration,
+            CacheInvalidator cacheInvalidator
+    ) {
         this.productRepository = productRepository;
-        this.modelMapper = modelMapper;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.productChangeTracker = productChangeTracker;
+        this.catalogGeneration = catalogGeneration;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
-    @Cacheable(value = "allProducts")
+    @Cacheable(value = "allProducts", sync = true)
     public List<ProductResponseDTO> listAllProducts() {
         log.info(LogMessages.RESOURCE_LIST_ALL + " - " + LogMessages.CACHE_SAVED, "products");
         log.info(LogMessages.DATABASE_QUERY);
-        return productRepository.findAll()
-                .stream()
-                .map(ProductResponseDTO::new)
-                .toList();
+        return toResponseList(productRepository.findAll(), toCountMap(productRepository.countUsersOfAllProducts()));
     }
 
-    @Cacheable(value = "productsPage", key = "#pageable.getPageNumber" + " - " + "#pageable.getPageSize")
+    @Cacheable(value = "productsPage", key = "@pageCacheGenerations.key('products', #pageable)", sync = true)
     public Page<ProductResponseDTO> getProductsPaginated(Pageable pageable) {
         log.info(LogMessages.RESOURCE_LIST_ALL + " - " + LogMessages.CACHE_SAVED, "products");
         log.info(LogMessages.DATABASE_QUERY);
         Page<Product> productsPage = productRepository.findAll(pageable);
-        return productsPage.map(ProductResponseDTO::new);
+        Map<Long, Long> userCounts = countUsers(productsPage.getContent());
+        return productsPage.map(product -> new ProductResponseDTO(product, userCounts.getOrDefault(product.getId(), 0L)));
+    }
+
+    public CursorPageDTO<ProductResponseDTO> getProductsByCursor(String sort, String direction, int size, String cursor) {
+        log.info(LogMessages.RESOURCE_LIST_ALL, "products");
+        log.info(LogMessages.DATABASE_QUERY);
+        KeysetCursor.requireValidSize(size);
+        KeysetCursor.requireSupportedSort(sort, CURSOR_SORTS);
+        Sort.Direction sortDirection = KeysetCursor.parseDirection(direction);
+
+        Slice<Product> productsSlice;
+        if(cursor == null || cursor.isBlank()) {
+            productsSlice = productRepository.findAllBy(KeysetCursor.firstPage(sort, sortDirection, size));
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor, sort, sortDirection);
+            productsSlice = findNextProducts(position, PageRequest.of(0, size));
+        }
+
+        Map<Long, Long> userCounts = countUsers(productsSlice.getContent());
+        return KeysetCursor.toCursorPage(
+                productsSlice,
+                sort,
+                sortDirection,
+                product -> new ProductResponseDTO(product, userCounts.getOrDefault(product.getId(), 0L)),
+                Product::getId,
+                product -> switch (sort) {
+                    case "name" -> product.getName();
+                    case "price" -> String.valueOf(product.getPrice());
+                    default -> null;
+                }
+        );
+    }
+
+    public ProductChangesDTO getChanges(long since, int size) {
+        log.info(LogMessages.RESOURCE_LIST_ALL, "product changes");
+        log.info(LogMessages.DATABASE_QUERY);
+        if(since < 0) {
+            throw new BadRequestException("since deve ser maior ou igual a 0");
+        }
+        if(size < 1 || size > MAX_CHANGES_SIZE) {
+            throw new BadRequestException("size deve estar entre 1 e " + MAX_CHANGES_SIZE);
+        }
+
+        Limit limit = Limit.of(size + 1);
+        long visibleThrough = productChangeTracker.visibleThrough();
+        List<Product> upserts = productRepository.findByChangeSeqBetweenOrderByChangeSeqAsc(since + 1, visibleThrough, limit);
+        List<ProductTombstone> deletes = productTombstoneRepository.findByChangeSeqBetweenOrderByChangeSeqAsc(since + 1, visibleThrough, limit);
+        if(since > 0 && since < productChangeTracker.prunedThrough()) {
+            log.warn("Cursor de alterações {} anterior às exclusões retidas", since);
+            throw new GoneException("since " + since + " anterior ao histórico de exclusões retido, refaça a sincronização completa");
+        }
+
+        List<Product> pageUpserts = new ArrayList<>();
+        List<Long> pageDeletes = new ArrayList<>();
+        long watermark = since;
+        int u = 0;
+        int d = 0;
+        while(pageUpserts.size() + pageDeletes.size() < size && (u < upserts.size() || d < deletes.size())) {
+            if(d >= deletes.size() || (u < upserts.size() && upserts.get(u).getChangeSeq() < deletes.get(d).getChangeSeq())) {
+                Product product = upserts.get(u++);
+                pageUpserts.add(product);
+                watermark = product.getChangeSeq();
+            } else {
+                ProductTombstone tombstone = deletes.get(d++);
+                pageDeletes.add(tombstone.getProductId());
+                watermark = tombstone.getChangeSeq();
+            }
+        }
+
+        boolean hasNext = u < upserts.size() || d < deletes.size();
+        return new ProductChangesDTO(toResponseList(pageUpserts, countUsers(pageUpserts)), pageDeletes, watermark, hasNext);
+    }
+
+    public CursorPageDTO<UserFromProductDTO> getUsersOfProduct(Long id, int size, String cursor) {
+        log.info(LogMessages.RESOURCE_FIND_BY_FIELD, "users", "product");
+        KeysetCursor.requireValidSize(size);
+        if(!productRepository.existsById(id)) {
+            log.warn(LogMessages.RESOURCE_NOT_FOUND, "product", "id", id);
+            throw new ResourceNotFoundException("Product", id);
+        }
+
+        Long afterId = cursor == null || cursor.isBlank()
+                ? 0L
+                : KeysetCursor.decode(cursor, "id", Sort.Direction.ASC).id();
+
+        Slice<UserFromProductDTO> usersSlice = productRepository.findUsersOfProduct(id, afterId, PageRequest.of(0, size));
+        return KeysetCursor.toCursorPage(
+                usersSlice,
+                "id",
+                Sort.Direction.ASC,
+                Function.identity(),
+                UserFromProductDTO::getId,
+                user -> null
+        );
     }
 
-    @Cacheable(value = "productId", key = "#id")
+    @Cacheable(value = "productId", key = "#id", sync = true)
     public ProductResponseDTO getProductById(Long id) {
         log.info(LogMessages.RESOURCE_FIND_BY_FIELD + " - " + LogMessages.CACHE_SAVED, "product", "id");
         return productRepository.findById(id)
-                .map(ProductResponseDTO::new)
+                .map(this::toResponse)
                 .orElseThrow(() -> {
                     log.warn(LogMessages.RESOURCE_NOT_FOUND, "product", "id", id);
                     return new ResourceNotFoundException("Product", id);
                 });
     }
 
-    @Cacheable(value = "productName", key = "#id")
+    @Cacheable(value = "productName", key = "#name", sync = true)
     public ProductResponseDTO getProductByName(String name) {
         log.info(LogMessages.RESOURCE_FIND_BY_FIELD + " - " + LogMessages.CACHE_SAVED, "product", "name");
         return productRepository.findByName(name)
-                .map(ProductResponseDTO::new)
+                .map(this::toResponse)
                 .orElseThrow(() -> {
                     log.warn(LogMessages.RESOURCE_NOT_FOUND, "product", "name", name);
                     return new ResourceNotFoundException("Product", "name", name);
                 });
     }
 
-    @CacheEvict(value = {"productName", "productId", "allProducts", "productsPage"}, key = "#id")
     public ProductResponseDTO updateProduct(Long id, ProductUpdateRequestDTO requestUpdate) {
         log.info(LogMessages.RESOURCE_UPDATE + " - " + LogMessages.CACHE_CLEANING, "product", "id", "updateProduct");
         Product product = productRepository.findById(id)
@@ -82,26 +205,28 @@ public class ProductService {
                 });
 
         ProductResponseDTO response = updateField(product, requestUpdate);
+        catalogGeneration.bump();
         log.info(LogMessages.OPERATION_SUCCESS, "updateProduct");
         return response;
     }
 
-    @CacheEvict(value = {"allProducts", "productsPage"}, allEntries = true)
     public ProductResponseDTO saveProduct(ProductRequestDTO request) {
         log.info(LogMessages.RESOURCE_CREATE + " - " + LogMessages.CACHE_CLEANING, "product", "saveProduct");
-        Product product = modelMapper.map(request, Product.class);
+        Product product = request.toEntity();
 
         if(productRepository.existsByName(product.getName())) {
             log.warn(LogMessages.FIELD_CONFLICT, "name", product.getName());
             throw new ConflictException("name", product.getName());
         }
 
+        product.setChangeSeq(productChangeTracker.next());
         Product productSaved = productRepository.save(product);
+        cacheInvalidator.productsAdded();
+        catalogGeneration.bump();
         log.info(LogMessages.OPERATION_SUCCESS, "saveProduct");
-        return new ProductResponseDTO(productSaved);
+        return new ProductResponseDTO(productSaved, 0);
     }
 
-    @CacheEvict(value = {"productName", "productId", "allProducts", "productsPage"}, key = "#id")
     public void removeProductById(Long id) {
         log.info(LogMessages.RESOURCE_DELETE + " - " + LogMessages.CACHE_CLEANING, "product", "id", "removeProductById");
         if(!productRepository.existsById(id)) {
@@ -110,6 +235,47 @@ public class ProductService {
         }
 
         productRepository.deleteById(id);
+        productChangeTracker.recordDeletion(id);
+        cacheInvalidator.productsRemoved(List.of(id));
+        catalogGeneration.bump();
+    }
+
+    private ProductResponseDTO toResponse(Product product) {
+        return new ProductResponseDTO(product, productRepository.countUsersByProductId(product.getId()));
+    }
+
+    private List<ProductResponseDTO> toResponseList(List<Product> products, Map<Long, Long> userCounts) {
+        return products.stream()
+                .map(product -> new ProductResponseDTO(product, userCounts.getOrDefault(product.getId(), 0L)))
+                .toList();
+    }
+
+    private Map<Long, Long> countUsers(List<Product> products) {
+        if(products.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Long> ids = products.stream().map(Product::getId).toList();
+        return toCountMap(productRepository.countUsersByProductIds(ids));
+    }
+
+    private static Map<Long, Long> toCountMap(List<AssociationCount> counts) {
+        return counts.stream().collect(Collectors.toMap(AssociationCount::getId, AssociationCount::getTotal));
+    }
+
+    private Slice<Product> findNextProducts(KeysetCursor position, Pageable limit) {
+        boolean ascending = position.direction().isAscending();
+        return switch (position.sort()) {
+            case "name" -> ascending
+                    ? productRepository.findNextByNameAsc(position.value(), position.id(), limit)
+                    : productRepository.findNextByNameDesc(position.value(), position.id(), limit);
+            case "price" -> ascending
+                    ? productRepository.findNextByPriceAsc(Double.valueOf(position.value()), position.id(), limit)
+                    : productRepository.findNextByPriceDesc(Double.valueOf(position.value()), position.id(), limit);
+            default -> ascending
+                    ? productRepository.findNextByIdAsc(position.id(), limit)
+                    : productRepository.findNextByIdDesc(position.id(), limit);
+        };
     }
 
     private ProductResponseDTO updateField(Product product, ProductUpdateRequestDTO requestUpdate) {
@@ -135,7 +301,9 @@ public class ProductService {
             product.setPrice(requestUpdate.getPrice());
         }
 
-        Product productUpdate = productRepository.save(product);
-        return new ProductResponseDTO(productUpdate);
+        product.setChangeSeq(productChangeTracker.next());
+        Product productUpdate = productRepository.saveAndFlush(product);
+        cacheInvalidator.productsChanged(List.of(product.getId()));
+        return toResponse(productUpdate);
     }
 }
\ No newline at end of file
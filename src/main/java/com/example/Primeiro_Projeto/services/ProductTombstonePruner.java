@@ -0,0 +1,51 @@
+package com.example.Primeiro_Projeto.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class ProductTombstonePruner {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductTombstonePruner.class);
+
+    private final ProductChangeTracker productChangeTracker;
+    private final Duration retention;
+    private final ScheduledExecutorService scheduler;
+
+    public ProductTombstonePruner(
+            ProductChangeTracker productChangeTracker,
+            @Value("${app.changes.tombstone-retention:30d}") Duration retention,
+            @Value("${app.changes.tombstone-prune-interval:1h}") Duration interval
+    ) {
+        this.productChangeTracker = productChangeTracker;
+        this.retention = retention;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-tombstone-prune");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::prune, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void prune() {
+        try {
+            productChangeTracker.pruneTombstones(Instant.now().minus(retention));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao remover tombstones de products expirados: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.config.CacheRefreshLoader;
+import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
+import com.example.Primeiro_Projeto.repositories.UserRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserCacheLoader implements CacheRefreshLoader {
+
+    private final UserRepository userRepository;
+
+    public UserCacheLoader(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public String cacheName() {
+        return "user";
+    }
+
+    @Override
+    @Transactional
+    public Object load(Object key) {
+        return userRepository.findById((Long) key)
+                .map(user -> new UserResponseDTO(user, userRepository.countProductsByUserId(user.getId())))
+                .orElse(null);
+    }
+}
@@ -1,6 +1,12 @@
 package com.example.Primeiro_Projeto.services;
 
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
+import com.example.Primeiro_Projeto.config.CatalogGeneration;
 import com.example.Primeiro_Projeto.config.LogMessages;
+import com.example.Primeiro_Projeto.dtos.CursorPageDTO;
+import com.example.Primeiro_Projeto.dtos.ProductFromUserDTO;
+import com.example.Primeiro_Projeto.dtos.ProductLinkBatchResponseDTO;
+import com.example.Primeiro_Projeto.dtos.ProductUnlinkBatchResponseDTO;
 import com.example.Primeiro_Projeto.dtos.UserRequestDTO;
 import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
 import com.example.Primeiro_Projeto.dtos.UserUpdateRequestDTO;
@@ -9,62 +15,137 @@ import com.example.Primeiro_Projeto.exceptions.ResourceNotFoundException;
 import com.example.Primeiro_Projeto.model.Product;
 import com.example.Primeiro_Projeto.model.Role;
 import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.repositories.AssociationCount;
+import com.example.Primeiro_Projeto.repositories.ProductLinkState;
 import com.example.Primeiro_Projeto.repositories.ProductRepository;
 import com.example.Primeiro_Projeto.repositories.UserRepository;
+import com.example.Primeiro_Projeto.security.TokenVersionRegistry;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Transactional
 public class UserService {
 
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    private static final List<String> CURSOR_SORTS = List.of("id", "username");
+
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
-
-    public UserService(UserRepository userRepository, ProductRepository productRepository) {
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final CatalogGeneration catalogGeneration;
+    private final CacheInvalidator cacheInvalidator;
+    private final ProductChangeTracker productChangeTracker;
+
+    public UserService(
+            UserRepository userRepository,
+            ProductRepository productRepository,
+            TokenVersionRegistry tokenVersionRegistry,
+            CatalogGeneration catalogGeneration,
+            CacheInvalidator cacheInvalidator,
+            ProductChangeTracker productChangeTracker
+    ) {
         this.userRepository = userRepository;
         this.productRepository = productRepository;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.catalogGeneration = catalogGeneration;
+        this.cacheInvalidator = cacheInvalidator;
+        this.productChangeTracker = productChangeTracker;
     }
 
-    @Cacheable(value = "allUsers")
+    @Cacheable(value = "allUsers", sync = true)
     public List<UserResponseDTO> getAllUsers() {
         log.info(LogMessages.RESOURCE_LIST_ALL + " - " + LogMessages.CACHE_SAVED, "users");
         log.info(LogMessages.DATABASE_QUERY);
-        return userRepository.findAllByOrderByIdAsc()
-                .stream()
-                .map(UserResponseDTO::new)
-                .toList();
+        return toResponseList(userRepository.findAllByOrderByIdAsc(), toCountMap(userRepository.countProductsOfAllUsers()));
     }
 
-    @Cacheable(value = "usersPage", key = "#pageable.getPageNumber + ' - ' + #pageable.getPageSize")
+    @Cacheable(value = "usersPage", key = "@pageCacheGenerations.key('users', #pageable)", sync = true)
     public Page<UserResponseDTO> getUserPaginated(Pageable pageable) {
         log.info(LogMessages.RESOURCE_LIST_ALL + " - " + LogMessages.CACHE_SAVED, "users");
         log.info(LogMessages.DATABASE_QUERY);
         Page<User> usersPage = userRepository.findAll(pageable);
+        Map<Long, Long> productCounts = countProducts(usersPage.getContent());
+
+        return usersPage.map(user -> new UserResponseDTO(user, productCounts.getOrDefault(user.getId(), 0L)));
+    }
+
+    public CursorPageDTO<UserResponseDTO> getUsersByCursor(String sort, String direction, int size, String cursor) {
+        log.info(LogMessages.RESOURCE_LIST_ALL, "users");
+        log.info(LogMessages.DATABASE_QUERY);
+        KeysetCursor.requireValidSize(size);
+        KeysetCursor.requireSupportedSort(sort, CURSOR_SORTS);
+        Sort.Direction sortDirection = KeysetCursor.parseDirection(direction);
+
+        Slice<User> usersSlice;
+        if(cursor == null || cursor.isBlank()) {
+            usersSlice = userRepository.findAllBy(KeysetCursor.firstPage(sort, sortDirection, size));
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor, sort, sortDirection);
+            usersSlice = findNextUsers(position, PageRequest.of(0, size));
+        }
+
+        Map<Long, Long> productCounts = countProducts(usersSlice.getContent());
+        return KeysetCursor.toCursorPage(
+                usersSlice,
+                sort,
+                sortDirection,
+                user -> new UserResponseDTO(user, productCounts.getOrDefault(user.getId(), 0L)),
+                User::getId,
+                user -> "username".equals(sort) ? user.getUsername() : null
+        );
+    }
+
+    public CursorPageDTO<ProductFromUserDTO> getProductsOfUser(Long id, int size, String cursor) {
+        log.info(LogMessages.RESOURCE_FIND_BY_FIELD, "products", "user");
+        KeysetCursor.requireValidSize(size);
+        if(!userRepository.existsById(id)) {
+            log.warn(LogMessages.RESOURCE_NOT_FOUND, "user", "id", id);
+            throw new ResourceNotFoundException("User", id);
+        }
 
-        return usersPage.map(UserResponseDTO::new);
+        Long afterId = cursor == null || cursor.isBlank()
+                ? 0L
+                : KeysetCursor.decode(cursor, "id", Sort.Direction.ASC).id();
+
+        Slice<ProductFromUserDTO> productsSlice = userRepository.findProductsOfUser(id, afterId, PageRequest.of(0, size));
+        return KeysetCursor.toCursorPage(
+                productsSlice,
+                "id",
+                Sort.Direction.ASC,
+                Function.identity(),
+                ProductFromUserDTO::getId,
+                product -> null
+        );
     }
 
-    @Cacheable(value = "user", key = "#id")
+    @Cacheable(value = "user", key = "#id", sync = true)
     public UserResponseDTO findUserById(Long id) {
         log.info(LogMessages.RESOURCE_FIND_BY_FIELD + " - " + LogMessages.CACHE_SAVED, "user", "id");
         return userRepository.findById(id)
-                .map(UserResponseDTO::new)
+                .map(this::toResponse)
                 .orElseThrow(() -> new ResourceNotFoundException("User", id));
     }
 
-    @CacheEvict(value = {"user", "allUsers", "usersPage"}, key = "#id")
     public UserResponseDTO updateUser(Long id, UserUpdateRequestDTO requestUpdate) {
         log.info(LogMessages.RESOURCE_UPDATE + " - " + LogMessages.CACHE_CLEANING, "user", "id", "updateUser");
         User user = userRepository.findById(id)
@@ -74,6 +155,7 @@ public class UserService {
                 });
 
         UserResponseDTO response = updateUserField(user, requestUpdate);
+        catalogGeneration.bump();
         log.info(LogMessages.OPERATION_SUCCESS, "updateUser");
         return response;
     }
@@ -90,7 +172,6 @@ public class UserService {
         return response;
     }
 
-    @CacheEvict(value = {"user", "allUsers", "usersPage", "productName", "productId", "allProducts", "productsPage"}, key = "#id_User")
     public UserResponseDTO addProductForUser(Long id_User, Long id_Product) {
         log.info(" Adicionado Product ao User - " + LogMessages.CACHE_CLEANING, "addProductForUser");
         User user = userRepository.findById(id_User)
@@ -104,21 +185,26 @@ public class UserService {
                     return new ResourceNotFoundException("Product", id_Product);
                 });
 
-        if(user.getProducts().contains(product)) {
+        if(userRepository.existsProductLink(id_User, id_Product)) {
             log.warn("User já possui product");
             throw new ConflictException(user.getUsername() + " já possui " + product.getName());
         }
 
-        user.getProducts().add(product);
-        product.getUsers().add(user);
+        try {
+            userRepository.insertProductLink(id_User, id_Product);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("User já possui product");
+            throw new ConflictException(user.getUsername() + " já possui " + product.getName());
+        }
 
-        User userUpdate = userRepository.save(user);
-        productRepository.save(product);
+        productChangeTracker.recordLinkChanges(List.of(id_Product));
+        cacheInvalidator.usersChanged(List.of(id_User));
+        cacheInvalidator.productsChanged(List.of(id_Product));
+        catalogGeneration.bump();
         log.info(LogMessages.OPERATION_SUCCESS, "addProductForUser");
-        return new UserResponseDTO(userUpdate);
+        return toResponse(user);
     }
 
-    @CacheEvict(value = {"user", "allUsers", "usersPage", "productName", "productId", "allProducts", "productsPage"}, key = "#id_User")
     public UserResponseDTO removeProductFromUser(Long id_User, Long id_Product) {
         log.info(" Removendo Product de User - " + LogMessages.CACHE_CLEANING, "removeProductFromUser");
         User user = userRepository.findById(id_User)
@@ -132,21 +218,94 @@ public class UserService {
                     return new ResourceNotFoundException("Product", id_Product);
                 });
 
-        if(!user.getProducts().contains(product)) {
+        if(userRepository.deleteProductLink(id_User, id_Product) == 0) {
             log.warn("User não possui product");
             throw new ConflictException(user.getUsername() + " não possui " + product.getName());
         }
 
-        user.getProducts().remove(product);
-        product.getUsers().remove(user);
-
-        User userUpdate = userRepository.save(user);
-        productRepository.save(product);
+        productChangeTracker.recordLinkChanges(List.of(id_Product));
+        cacheInvalidator.usersChanged(List.of(id_User));
+        cacheInvalidator.productsChanged(List.of(id_Product));
+        catalogGeneration.bump();
         log.info(LogMessages.OPERATION_SUCCESS, "removeProductFromUser");
-        return new UserResponseDTO(userUpdate);
+        return toResponse(user);
+    }
+
+    public ProductLinkBatchResponseDTO addProductsForUser(Long id_User, List<Long> productIds) {
+        log.info(" Adicionando {} Products ao User - " + LogMessages.CACHE_CLEANING, productIds.size(), "addProductsForUser");
+        if(!userRepository.existsById(id_User)) {
+            log.warn(LogMessages.RESOURCE_NOT_FOUND, "user", "id", id_User);
+            throw new ResourceNotFoundException("user", id_User);
+        }
+
+        Set<Long> requested = new LinkedHashSet<>(productIds);
+        Map<Long, Boolean> linkStates = findProductLinkStates(id_User, requested);
+
+        ProductLinkBatchResponseDTO response = new ProductLinkBatchResponseDTO();
+        response.setUserId(id_User);
+        for(Long productId : requested) {
+            Boolean linked = linkStates.get(productId);
+            if(linked == null) {
+                response.getMissing().add(productId);
+            } else if(linked) {
+                response.getAlreadyPresent().add(productId);
+            } else {
+                response.getAdded().add(productId);
+            }
+        }
+
+        if(!response.getAdded().isEmpty()) {
+            try {
+                userRepository.batchInsertProductLinks(id_User, response.getAdded());
+            } catch (DataIntegrityViolationException e) {
+                log.warn("User já possui product");
+                throw new ConflictException("products do user " + id_User + " alterados durante a operação, tente novamente");
+            }
+            productChangeTracker.recordLinkChanges(response.getAdded());
+            cacheInvalidator.usersChanged(List.of(id_User));
+            cacheInvalidator.productsChanged(response.getAdded());
+            catalogGeneration.bump();
+        }
+
+        log.info(LogMessages.OPERATION_SUCCESS, "addProductsForUser");
+        return response;
+    }
+
+    public ProductUnlinkBatchResponseDTO removeProductsFromUser(Long id_User, List<Long> productIds) {
+        log.info(" Removendo {} Products do User - " + LogMessages.CACHE_CLEANING, productIds.size(), "removeProductsFromUser");
+        if(!userRepository.existsById(id_User)) {
+            log.warn(LogMessages.RESOURCE_NOT_FOUND, "user", "id", id_User);
+            throw new ResourceNotFoundException("user", id_User);
+        }
+
+        Set<Long> requested = new LinkedHashSet<>(productIds);
+        Map<Long, Boolean> linkStates = findProductLinkStates(id_User, requested);
+
+        ProductUnlinkBatchResponseDTO response = new ProductUnlinkBatchResponseDTO();
+        response.setUserId(id_User);
+        for(Long productId : requested) {
+            Boolean linked = linkStates.get(productId);
+            if(linked == null) {
+                response.getMissing().add(productId);
+            } else if(linked) {
+                response.getRemoved().add(productId);
+            } else {
+                response.getNotPresent().add(productId);
+            }
+        }
+
+        if(!response.getRemoved().isEmpty()) {
+            userRepository.deleteProductLinks(id_User, response.getRemoved());
+            productChangeTracker.recordLinkChanges(response.getRemoved());
+            cacheInvalidator.usersChanged(List.of(id_User));
+            cacheInvalidator.productsChanged(response.getRemoved());
+            catalogGeneration.bump();
+        }
+
+        log.info(LogMessages.OPERATION_SUCCESS, "removeProductsFromUser");
+        return response;
     }
 
-    @CacheEvict(value = {"user", "allUsers", "usersPage"}, key = "#id")
     public UserResponseDTO promoteToAdmin(Long id) {
         log.info(" Promovendo user {} para ADMIN - " + LogMessages.CACHE_CLEANING, id, "promoteToAdmin");
         User user = userRepository.findById(id)
@@ -158,12 +317,15 @@ public class UserService {
         }
 
         user.getRoles().add(Role.ADMIN);
-        User userUpdate = userRepository.save(user);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User userUpdate = userRepository.saveAndFlush(user);
+        tokenVersionRegistry.update(userUpdate.getId(), userUpdate.getTokenVersion());
+        cacheInvalidator.usersChanged(List.of(id));
+        catalogGeneration.bump();
         log.info(LogMessages.OPERATION_SUCCESS, "promoteToAdmin");
-        return new UserResponseDTO(userUpdate);
+        return toResponse(userUpdate);
     }
 
-    @CacheEvict(value = {"user", "allUsers", "usersPage"}, key = "#id")
     public UserResponseDTO removeFromAdmin(Long id) {
         log.info(" Removendo user {} de ADMIN - " + LogMessages.CACHE_CLEANING, id, "removeFromAdmin");
         User user = userRepository.findById(id)
@@ -175,12 +337,15 @@ public class UserService {
         }
 
         user.getRoles().remove(Role.ADMIN);
-        User userUpdate = userRepository.save(user);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User userUpdate = userRepository.saveAndFlush(user);
+        tokenVersionRegistry.update(userUpdate.getId(), userUpdate.getTokenVersion());
+        cacheInvalidator.usersChanged(List.of(id));
+        catalogGeneration.bump();
         log.info(LogMessages.OPERATION_SUCCESS, "removeFromAdmin");
-        return new UserResponseDTO(userUpdate);
+        return toResponse(userUpdate);
     }
 
-    @CacheEvict(value = {"user", "allUsers", "usersPage"}, key = "#id")
     public void removeUser(Long id) {
         log.info(LogMessages.RESOURCE_DELETE + " - " + LogMessages.CACHE_CLEANING, "user", "id", "removeUser");
         if(!userRepository.existsById(id)) {
@@ -188,7 +353,13 @@ public class UserService {
             throw new ResourceNotFoundException("User", id);
         }
 
+        List<Long> productIds = userRepository.findProductIdsByUserId(id);
         userRepository.deleteById(id);
+        productChangeTracker.recordLinkChanges(productIds);
+        tokenVersionRegistry.remove(id);
+        cacheInvalidator.usersRemoved(List.of(id));
+        cacheInvalidator.productsChanged(productIds);
+        catalogGeneration.bump();
         log.info(LogMessages.OPERATION_SUCCESS, "removeUser");
     }
 
@@ -206,6 +377,46 @@ public class UserService {
         removeUser(user.getId());
     }
 
+    private UserResponseDTO toResponse(User user) {
+        return new UserResponseDTO(user, userRepository.countProductsByUserId(user.getId()));
+    }
+
+    private List<UserResponseDTO> toResponseList(List<User> users, Map<Long, Long> productCounts) {
+        return users.stream()
+                .map(user -> new UserResponseDTO(user, productCounts.getOrDefault(user.getId(), 0L)))
+                .toList();
+    }
+
+    private Map<Long, Long> countProducts(List<User> users) {
+        if(users.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Long> ids = users.stream().map(User::getId).toList();
+        return toCountMap(userRepository.countProductsByUserIds(ids));
+    }
+
+    private static Map<Long, Long> toCountMap(List<AssociationCount> counts) {
+        return counts.stream().collect(Collectors.toMap(AssociationCount::getId, AssociationCount::getTotal));
+    }
+
+    private Slice<User> findNextUsers(KeysetCursor position, Pageable limit) {
+        boolean ascending = position.direction().isAscending();
+        if("username".equals(position.sort())) {
+            return ascending
+                    ? userRepository.findNextByUsernameAsc(position.value(), position.id(), limit)
+                    : userRepository.findNextByUsernameDesc(position.value(), position.id(), limit);
+        }
+        return ascending
+                ? userRepository.findNextByIdAsc(position.id(), limit)
+                : userRepository.findNextByIdDesc(position.id(), limit);
+    }
+
+    private Map<Long, Boolean> findProductLinkStates(Long userId, Collection<Long> productIds) {
+        return userRepository.findProductLinkStates(userId, productIds).stream()
+                .collect(Collectors.toMap(ProductLinkState::getId, ProductLinkState::getLinked));
+    }
+
     private UserResponseDTO updateUserField(User user, UserUpdateRequestDTO requestUpdate) {
         if(
                 requestUpdate.getUsername() != null &&
@@ -227,9 +438,12 @@ public class UserService {
             }
             log.info(LogMessages.FIELD_UPDATE, "email", requestUpdate.getEmail());
             user.setEmail(requestUpdate.getEmail());
+            user.setTokenVersion(user.getTokenVersion() + 1);
         }
 
-        User userUpdate = userRepository.save(user);
-        return new UserResponseDTO(userUpdate);
+        User userUpdate = userRepository.saveAndFlush(user);
+        tokenVersionRegistry.update(userUpdate.getId(), userUpdate.getTokenVersion());
+        cacheInvalidator.usersChanged(List.of(user.getId()));
+        return toResponse(userUpdate);
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+-- Migração de IDENTITY para sequences com otimizador pooled (PostgreSQL).
+-- Executar uma vez, com a aplicação parada, antes de subir a versão que usa @PooledSequence.
+-- O INCREMENT BY deve ser igual a spring.jpa.properties.app.id.allocation_size.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
+-- O pooled usa o valor da sequence como limite superior do bloco: o primeiro bloco
+-- alocado precisa começar depois do maior id existente.
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+SELECT setval('products_seq', COALESCE((SELECT MAX(id) FROM products), 0) + 50, false);
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
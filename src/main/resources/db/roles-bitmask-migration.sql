@@ -0,0 +1,14 @@
+-- Migração de user_roles (ElementCollection) para a coluna users.role_mask (PostgreSQL).
+-- Executar uma vez, com a aplicação parada, antes de subir a versão que usa RoleMaskConverter.
+-- Bits: USER = 1, ADMIN = 2 (ver Role.getBit()).
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS role_mask integer NOT NULL DEFAULT 0;
+
+UPDATE users u
+SET role_mask = COALESCE((
+    SELECT SUM(CASE ur.role_name WHEN 'USER' THEN 1 WHEN 'ADMIN' THEN 2 ELSE 0 END)
+    FROM (SELECT DISTINCT user_id, role_name FROM user_roles) ur
+    WHERE ur.user_id = u.id
+), 0);
+
+DROP TABLE user_roles;
@@ -0,0 +1,50 @@
+package com.example.Primeiro_Projeto.benchmarks;
+
+import com.example.Primeiro_Projeto.dtos.ProductRequestDTO;
+import com.example.Primeiro_Projeto.dtos.UserRequestDTO;
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.model.User;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private UserRequestDTO userRequest;
+    private ProductRequestDTO productRequest;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        userRequest = new UserRequestDTO("User", "user@email.com", "123456");
+        productRequest = new ProductRequestDTO("Product", 10.0);
+    }
+
+    @Benchmark
+    public User modelMapperUser() {
+        return modelMapper.map(userRequest, User.class);
+    }
+
+    @Benchmark
+    public User handWrittenUser() {
+        return userRequest.toEntity();
+    }
+
+    @Benchmark
+    public Product modelMapperProduct() {
+        return modelMapper.map(productRequest, Product.class);
+    }
+
+    @Benchmark
+    public Product handWrittenProduct() {
+        return productRequest.toEntity();
+    }
+}
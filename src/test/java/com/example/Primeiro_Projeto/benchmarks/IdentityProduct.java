@@ -0,0 +1,14 @@
+package com.example.Primeiro_Projeto.benchmarks;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdentityProduct {
+    private Long id;
+    private String name;
+    private Double price;
+}
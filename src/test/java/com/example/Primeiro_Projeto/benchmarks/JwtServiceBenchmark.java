@@ -0,0 +1,56 @@
+package com.example.Primeiro_Projeto.benchmarks;
+
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.security.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET_KEY = "MySuperSecretKey123456789WithMoreThan32Characters";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET_KEY, Duration.ofHours(24), 10_000);
+        User user = new User(1L, "User", "user@email.com", "123456", EnumSet.of(Role.USER), new ArrayList<>(), 0, null);
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String legacyValidateThenGetSubject() {
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String parseAndVerify() {
+        return jwtService.parseAndVerify(token).orElseThrow().getSubject();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.Primeiro_Projeto.benchmarks;
+
+import com.example.Primeiro_Projeto.PrimeiroProjetoApplication;
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProductSaveAllBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"POOLED_SEQUENCE", "IDENTITY"})
+    public String idGeneration;
+
+    private Server database;
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private List<Product> products;
+    private List<IdentityProduct> identityProducts;
+    private int iteration;
+
+    @Setup(Level.Trial)
+    public void startContext() throws SQLException {
+        database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+        ));
+        if(isIdentity()) {
+            args.add("--spring.jpa.mapping-resources=benchmarks/identity-orm.xml");
+            args.add("--spring.jpa.properties.hibernate.jdbc.batch_size=0");
+        }
+        context = new SpringApplicationBuilder(PrimeiroProjetoApplication.class).run(args.toArray(String[]::new));
+        productRepository = context.getBean(ProductRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareProducts() {
+        iteration++;
+        if(isIdentity()) {
+            transactionTemplate.executeWithoutResult(status -> entityManager.createQuery("DELETE FROM IdentityProduct").executeUpdate());
+            identityProducts = new ArrayList<>(ROWS);
+            for(int i = 0; i < ROWS; i++) {
+                identityProducts.add(new IdentityProduct(null, "Product " + iteration + "-" + i, (double) i));
+            }
+        } else {
+            productRepository.deleteAllInBatch();
+            products = new ArrayList<>(ROWS);
+            for(int i = 0; i < ROWS; i++) {
+                products.add(new Product(null, "Product " + iteration + "-" + i, (double) i, new ArrayList<>(), null, 0));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<?> saveAll() {
+        if(isIdentity()) {
+            return transactionTemplate.execute(status -> {
+                identityProducts.forEach(entityManager::persist);
+                return identityProducts;
+            });
+        }
+        return productRepository.saveAll(products);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+        database.stop();
+    }
+
+    private boolean isIdentity() {
+        return "IDENTITY".equals(idGeneration);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.Primeiro_Projeto.benchmarks;
+
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.repositories.RevokedTokenRepository;
+import com.example.Primeiro_Projeto.security.JwtService;
+import com.example.Primeiro_Projeto.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenRevocationBenchmark {
+
+    private static final String SECRET_KEY = "MySuperSecretKey123456789WithMoreThan32Characters";
+
+    private TokenRevocationList tokenRevocationList;
+    private Claims activeClaims;
+    private Claims revokedClaims;
+
+    @Setup
+    public void setUp() {
+        Duration accessTokenTtl = Duration.ofMinutes(15);
+        JwtService jwtService = new JwtService(SECRET_KEY, accessTokenTtl, 100);
+        tokenRevocationList = new TokenRevocationList(Mockito.mock(RevokedTokenRepository.class), accessTokenTtl, Duration.ofMinutes(1), 65536);
+
+        for(int i = 0; i < 10_000; i++) {
+            tokenRevocationList.revoke(UUID.randomUUID().toString(), Instant.now().plus(Duration.ofSeconds(i % 900 + 1)));
+        }
+
+        User user = new User(1L, "User", "user@email.com", "123456", EnumSet.of(Role.USER), new ArrayList<>(), 0, null);
+        activeClaims = jwtService.parseAndVerify(jwtService.generateToken(user)).orElseThrow();
+        revokedClaims = jwtService.parseAndVerify(jwtService.generateToken(user)).orElseThrow();
+        tokenRevocationList.revoke(revokedClaims.getId(), revokedClaims.getExpiration().toInstant());
+    }
+
+    @Benchmark
+    public boolean activeToken() {
+        return tokenRevocationList.isRevoked(activeClaims);
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return tokenRevocationList.isRevoked(revokedClaims);
+    }
+}
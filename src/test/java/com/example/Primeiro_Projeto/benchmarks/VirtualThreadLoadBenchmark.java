@@ -0,0 +1,207 @@
+package com.example.Primeiro_Projeto.benchmarks;
+
+import com.example.Primeiro_Projeto.PrimeiroProjetoApplication;
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.example.Primeiro_Projeto.repositories.UserRepository;
+import com.example.Primeiro_Projeto.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djdk.tracePinnedThreads=short"})
+public class VirtualThreadLoadBenchmark {
+
+    private static final long QUERY_LATENCY_MILLIS = 20;
+    private static final int SLOW_CLIENT_SHARE = 10;
+    private static final Set<String> QUERY_METHODS = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch");
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"1000", "10000"})
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private int port;
+    private String fastPath;
+    private String slowPath;
+    private String authorization;
+    private List<CompletableFuture<Integer>> slowRequests;
+
+    @TestConfiguration
+    static class SlowDatabase {
+
+        @Bean
+        static BeanPostProcessor slowQueries() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if(!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return slow(Connection.class, super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T slow(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if(target instanceof Statement && QUERY_METHODS.contains(method.getName())) {
+                    Thread.sleep(QUERY_LATENCY_MILLIS);
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    return result instanceof PreparedStatement statement && method.getName().startsWith("prepare")
+                            ? slow(PreparedStatement.class, statement)
+                            : result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startContext() throws Exception {
+        context = new SpringApplicationBuilder(PrimeiroProjetoApplication.class, SlowDatabase.class)
+                .run(
+                        "--spring.profiles.active=" + ("virtual".equals(threads) ? "virtual-threads" : "default"),
+                        "--server.port=0",
+                        "--server.tomcat.max-connections=" + (clients * 2),
+                        "--server.tomcat.accept-count=" + clients,
+                        "--spring.datasource.url=jdbc:h2:mem:load;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.connection-timeout=60000",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+                );
+
+        List<Product> products = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            products.add(new Product(null, "Product " + i, (double) i, new ArrayList<>(), null, 0));
+        }
+        Long productId = context.getBean(ProductRepository.class).saveAll(products).get(0).getId();
+        User user = context.getBean(UserRepository.class)
+                .save(new User(null, "Load", "load@email.com", "hash", EnumSet.of(Role.USER), new ArrayList<>(), 0, null));
+        authorization = "Bearer " + context.getBean(JwtService.class).generateToken(user);
+
+        port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        fastPath = "/api/products/id/" + productId;
+        slowPath = "/api/products/cursor?size=20";
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+        send(fastPath).join();
+    }
+
+    @Setup(Level.Invocation)
+    public void startSlowRequests() throws InterruptedException {
+        slowRequests = new ArrayList<>();
+        for(int i = 0; i < clients / SLOW_CLIENT_SHARE; i++) {
+            slowRequests.add(send(slowPath));
+        }
+        Thread.sleep(200);
+    }
+
+    @Benchmark
+    public int cachedReadsWhileDatabaseIsSlow() {
+        List<CompletableFuture<Integer>> fastRequests = new ArrayList<>();
+        for(int i = clients / SLOW_CLIENT_SHARE; i < clients; i++) {
+            fastRequests.add(send(fastPath));
+        }
+        return expectOk(fastRequests);
+    }
+
+    @TearDown(Level.Invocation)
+    public void drainSlowRequests() {
+        expectOk(slowRequests);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        clientExecutor.shutdownNow();
+        context.close();
+    }
+
+    private CompletableFuture<Integer> send(String path) {
+        return CompletableFuture.supplyAsync(() -> get(path), clientExecutor);
+    }
+
+    private int get(String path) {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setTcpNoDelay(true);
+            OutputStream output = socket.getOutputStream();
+            output.write(("GET " + path + " HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Authorization: " + authorization + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+
+            BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String statusLine = input.readLine();
+            input.transferTo(Writer.nullWriter());
+            return Integer.parseInt(statusLine.substring(9, 12));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int expectOk(List<CompletableFuture<Integer>> requests) {
+        int ok = 0;
+        for(CompletableFuture<Integer> request : requests) {
+            int status = request.join();
+            if(status != 200) {
+                throw new IllegalStateException("resposta inesperada: " + status);
+            }
+            ok++;
+        }
+        return ok;
+    }
+}
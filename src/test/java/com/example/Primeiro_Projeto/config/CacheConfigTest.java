@@ -0,0 +1,181 @@
+package com.example.Primeiro_Projeto.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private final CacheRefreshExecutor refreshExecutor = new CacheRefreshExecutor(1, 10);
+
+    private final ListAppender<ILoggingEvent> logs = new ListAppender<>();
+
+    private final StaleWhileRevalidateTest.FakeTicker ticker = new StaleWhileRevalidateTest.FakeTicker();
+
+    private final List<String> loaderThreads = new CopyOnWriteArrayList<>();
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        properties.getDefaults().setMaximumSize(1000L);
+        properties.getDefaults().setExpireAfterWrite(Duration.ofMinutes(10));
+        properties.getDefaults().setMaxStaleness(Duration.ofMinutes(2));
+        properties.getSpecs().put("allProducts", spec(spec -> {
+            spec.setMaximumWeight(2L);
+            spec.setExpireAfterWrite(Duration.ofMinutes(5));
+        }));
+        properties.getSpecs().put("productId", spec(spec -> {
+            spec.setMaximumSize(10000L);
+            spec.setRefreshAfterWrite(Duration.ofMinutes(2));
+        }));
+        properties.getSpecs().put("productName", spec(spec -> spec.setRefreshAfterWrite(Duration.ofMinutes(2))));
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("ticker", ticker);
+        beans.addBean("productCacheLoader", new CacheRefreshLoader() {
+            @Override
+            public String cacheName() {
+                return "productId";
+            }
+
+            @Override
+            public Object load(Object key) {
+                loaderThreads.add(Thread.currentThread().getName());
+                return "product " + key;
+            }
+        });
+
+        cacheManager = new CacheConfig().cacheManager(
+                properties,
+                beans.getBeanProvider(CacheRefreshLoader.class),
+                new CatalogGeneration(),
+                new CacheDependencyIndex(),
+                refreshExecutor,
+                beans.getBeanProvider(com.github.benmanes.caffeine.cache.Ticker.class)
+        );
+
+        logs.start();
+        ((Logger) LoggerFactory.getLogger(CacheConfig.class)).addAppender(logs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger(CacheConfig.class)).detachAppender(logs);
+        refreshExecutor.shutdown();
+    }
+
+    @Test
+    void deveAplicarTamanhoOuPesoMaximoPorCache() {
+        Policy.Eviction<Object, Object> productId = nativeCache("productId").policy().eviction().orElseThrow();
+        Policy.Eviction<Object, Object> allProducts = nativeCache("allProducts").policy().eviction().orElseThrow();
+        Policy.Eviction<Object, Object> usersPage = nativeCache("usersPage").policy().eviction().orElseThrow();
+
+        assertFalse(productId.isWeighted());
+        assertEquals(10000, productId.getMaximum());
+        assertTrue(allProducts.isWeighted());
+        assertEquals(2, allProducts.getMaximum());
+        assertFalse(usersPage.isWeighted());
+        assertEquals(1000, usersPage.getMaximum());
+    }
+
+    @Test
+    void deveSomarObsolescenciaMaximaAoTempoDeExpiracao() {
+        assertEquals(Duration.ofMinutes(7).toNanos(), expireAfterWrite("allProducts"));
+        assertEquals(Duration.ofMinutes(12).toNanos(), expireAfterWrite("productId"));
+        assertEquals(Duration.ofMinutes(12).toNanos(), expireAfterWrite("usersPage"));
+    }
+
+    @Test
+    void deveConfigurarRefreshAfterWriteApenasParaCachesComLoader() {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> productId = nativeCache("productId");
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> productName = nativeCache("productName");
+
+        assertInstanceOf(LoadingCache.class, productId);
+        assertEquals(Duration.ofMinutes(2).toNanos(),
+                productId.policy().refreshAfterWrite().orElseThrow().getRefreshesAfter(TimeUnit.NANOSECONDS));
+        assertEquals("product 1", ((LoadingCache<Object, Object>) productId).get(1L));
+        assertTrue(productName.policy().refreshAfterWrite().isEmpty());
+    }
+
+    @Test
+    void deveExecutarRefreshNoExecutorDeRefreshDoCache() throws InterruptedException {
+        LoadingCache<Object, Object> productId = (LoadingCache<Object, Object>) nativeCache("productId");
+        productId.get(1L);
+
+        ticker.advance(Duration.ofMinutes(3));
+        productId.get(1L);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(loaderThreads.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, loaderThreads.size());
+        assertTrue(loaderThreads.get(1).startsWith("cache-refresh-"), loaderThreads.get(1));
+    }
+
+    @Test
+    void deveAvisarENaoGuardarValorMaiorQueOPesoMaximo() {
+        CoalescingCache allProducts = (CoalescingCache) cacheManager.getCache("allProducts");
+
+        allProducts.put("all", List.of("a", "b", "c"));
+        nativeCache("allProducts").cleanUp();
+
+        assertNull(allProducts.get("all"));
+        assertTrue(logs.list.stream().anyMatch(event ->
+                event.getFormattedMessage().contains("allProducts") && event.getFormattedMessage().contains("maximum-weight 2")));
+    }
+
+    @Test
+    void deveExporEstatisticasDoCaffeineNoMicrometer() {
+        CoalescingCache productName = (CoalescingCache) cacheManager.getCache("productName");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new CoalescingCacheMeterBinderProvider().getMeterBinder(productName, Tags.empty()).bindTo(registry);
+
+        productName.get("Product 1");
+        productName.put("Product 1", "product");
+        productName.get("Product 1");
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "productName").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "productName").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").tag("cache", "productName").gauge().value());
+
+        productName.get("Product 2", () -> "product");
+
+        assertEquals(1.0, registry.get("cache.coalesced.loads").tag("cache", "productName").functionCounter().count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cacheManager.getCache(name).getNativeCache();
+    }
+
+    private long expireAfterWrite(String name) {
+        return nativeCache(name).policy().expireAfterWrite().orElseThrow().getExpiresAfter(TimeUnit.NANOSECONDS);
+    }
+
+    private static CacheSpecProperties.Spec spec(java.util.function.Consumer<CacheSpecProperties.Spec> customizer) {
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        customizer.accept(spec);
+        return spec;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.example.Primeiro_Projeto.config.CacheDependencyIndex.Dependency;
+import com.example.Primeiro_Projeto.config.CacheDependencyIndex.Entry;
+import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
+import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
+import com.example.Primeiro_Projeto.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheDependencyIndexTest {
+
+    private final CacheDependencyIndex index = new CacheDependencyIndex();
+
+    @Test
+    void deveIndexarEntradasPelosIdsQueContem() {
+        index.record("productId", 1L, product(1L));
+        index.record("allProducts", "all", List.of(product(1L), product(2L)));
+        index.record("user", 1L, new UserResponseDTO(1L, "User", "user@email.com", EnumSet.of(Role.USER), 0, 0L));
+
+        assertEquals(Set.of(new Entry("productId", 1L), new Entry("allProducts", "all")), index.entriesOf(Dependency.product(1L)));
+        assertEquals(Set.of(new Entry("allProducts", "all")), index.entriesOf(Dependency.product(2L)));
+        assertEquals(Set.of(new Entry("user", 1L)), index.entriesOf(Dependency.user(1L)));
+        assertTrue(index.entriesOf(Dependency.user(2L)).isEmpty());
+    }
+
+    @Test
+    void naoDeveIndexarPaginasQueSaoVersionadasPorGeracao() {
+        index.record("productsPage", "page", new PageImpl<>(List.of(product(1L)), PageRequest.of(0, 1, Sort.by("price")), 2));
+
+        assertTrue(index.entriesOf(Dependency.product(1L)).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void deveEsquecerTodasAsDependenciasDeUmaEntrada() {
+        index.record("allProducts", "all", List.of(product(1L), product(2L)));
+        index.record("productId", 2L, product(2L));
+
+        index.forget("allProducts", "all");
+
+        assertTrue(index.entriesOf(Dependency.product(1L)).isEmpty());
+        assertEquals(Set.of(new Entry("productId", 2L)), index.entriesOf(Dependency.product(2L)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void deveDesanexarEntradasDeUmaDependenciaUmaUnicaVez() {
+        index.record("productId", 1L, product(1L));
+        index.record("productResponses", "id:1", new byte[0]);
+
+        assertEquals(Set.of(new Entry("productId", 1L)), index.detach(Dependency.product(1L)));
+        assertTrue(index.detach(Dependency.product(1L)).isEmpty());
+        assertEquals(1, index.size());
+
+        index.forgetAll("productId");
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void deveIndicarValoresComDependenciaDesanexadaDepoisDoCarimbo() {
+        long stamp = index.stamp();
+        index.detach(Dependency.product(1L));
+
+        assertTrue(index.detachedSince(stamp, product(1L)));
+        assertTrue(index.detachedSince(stamp, List.of(product(2L), product(1L))));
+        assertFalse(index.detachedSince(stamp, product(2L)));
+        assertFalse(index.detachedSince(index.stamp(), product(1L)));
+    }
+
+    private static ProductResponseDTO product(Long id) {
+        return new ProductResponseDTO(id, "Product " + id, 10.0, 0, 0L);
+    }
+}
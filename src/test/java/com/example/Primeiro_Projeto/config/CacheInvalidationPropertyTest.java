@@ -0,0 +1,263 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.example.Primeiro_Projeto.dtos.ProductRequestDTO;
+import com.example.Primeiro_Projeto.dtos.ProductUpdateRequestDTO;
+import com.example.Primeiro_Projeto.dtos.UserRequestDTO;
+import com.example.Primeiro_Projeto.dtos.UserUpdateRequestDTO;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.example.Primeiro_Projeto.repositories.UserRepository;
+import com.example.Primeiro_Projeto.services.AuthService;
+import com.example.Primeiro_Projeto.services.ProductService;
+import com.example.Primeiro_Projeto.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.AopTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:invalidation;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.Primeiro_Projeto=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+class CacheInvalidationPropertyTest {
+
+    private static final int RUNS = 4;
+    private static final int OPERATIONS = 25;
+
+    private static final List<Sort> PRODUCT_SORTS = List.of(
+            Sort.by("id"),
+            Sort.by(Sort.Order.desc("price"), Sort.Order.asc("id")),
+            Sort.by(Sort.Order.asc("name"), Sort.Order.asc("id"))
+    );
+
+    private static final List<Sort> USER_SORTS = List.of(
+            Sort.by("id"),
+            Sort.by(Sort.Order.asc("username"), Sort.Order.asc("id"))
+    );
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PageCacheGenerations pageCacheGenerations;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<String> productNames = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        productIds.clear();
+        productNames.clear();
+        userIds.clear();
+    }
+
+    @Test
+    void naoDeveServirLeituraDesatualizadaAposQualquerSequenciaDeEscritas() {
+        for(long seed = 0; seed < RUNS; seed++) {
+            Random random = new Random(seed);
+            setUp();
+            for(int i = 0; i < 4; i++) {
+                createProduct(random);
+                createUser();
+            }
+            assertNoStaleReads(seed, "seed");
+
+            for(int step = 0; step < OPERATIONS; step++) {
+                String operation = applyRandomWrite(random);
+                assertNoStaleReads(seed, step + ":" + operation);
+            }
+        }
+    }
+
+    @Test
+    void deveRemoverApenasAsEntradasQueContemOProdutoAlterado() {
+        for(int i = 0; i < 4; i++) {
+            productIds.add(productService.saveProduct(new ProductRequestDTO("Product " + i, 10.0 * (i + 1))).getId());
+        }
+        Long changed = productIds.get(3);
+        Long untouched = productIds.get(0);
+
+        productService.getProductById(changed);
+        productService.getProductById(untouched);
+        productService.getProductByName("Product 0");
+
+        productService.updateProduct(changed, new ProductUpdateRequestDTO(null, 1.0));
+
+        assertNull(cached("productId", changed));
+        assertNotNull(cached("productId", untouched));
+        assertNotNull(cached("productName", "Product 0"));
+    }
+
+    @Test
+    void deveInvalidarPaginasPelaGeracaoEPreaquecerPrimeiraPagina() throws InterruptedException {
+        for(int i = 0; i < 4; i++) {
+            productIds.add(productService.saveProduct(new ProductRequestDTO("Product " + i, 10.0 * (i + 1))).getId());
+        }
+        Pageable firstPage = PageRequest.of(0, 2, Sort.by("price"));
+        Pageable secondPage = PageRequest.of(1, 2, Sort.by("price"));
+        productService.getProductsPaginated(firstPage);
+        productService.getProductsPaginated(secondPage);
+        long before = pageCacheGenerations.current(PageCacheGenerations.PRODUCTS);
+
+        productService.updateProduct(productIds.get(3), new ProductUpdateRequestDTO(null, 1.0));
+
+        long after = pageCacheGenerations.current(PageCacheGenerations.PRODUCTS);
+        assertTrue(after > before);
+
+        PageCacheGenerations.PageKey stale = new PageCacheGenerations.PageKey(PageCacheGenerations.PRODUCTS, before, secondPage);
+        PageCacheGenerations.PageKey prewarmed = new PageCacheGenerations.PageKey(PageCacheGenerations.PRODUCTS, after, firstPage);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while((cached("productsPage", stale) != null || cached("productsPage", prewarmed) == null) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNull(cached("productsPage", stale));
+        assertNotNull(cached("productsPage", prewarmed));
+        assertNull(cached("productsPage", new PageCacheGenerations.PageKey(PageCacheGenerations.PRODUCTS, after, secondPage)));
+        assertEquals(productIds.get(3), productService.getProductsPaginated(firstPage).getContent().get(0).getId());
+    }
+
+    @Test
+    void deveRemoverNomeAntigoDoCacheQuandoProdutoForRenomeado() {
+        Long id = productService.saveProduct(new ProductRequestDTO("Nome Antigo", 10.0)).getId();
+
+        assertEquals(id, productService.getProductByName("Nome Antigo").getId());
+        productService.updateProduct(id, new ProductUpdateRequestDTO("Nome Novo", null));
+
+        assertThrows(RuntimeException.class, () -> productService.getProductByName("Nome Antigo"));
+        assertEquals(id, productService.getProductByName("Nome Novo").getId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object cached(String cacheName, Object key) {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cacheManager.getCache(cacheName).getNativeCache()).getIfPresent(key);
+    }
+
+    private String applyRandomWrite(Random random) {
+        int operation = random.nextInt(12);
+        try {
+            switch (operation) {
+                case 0 -> createProduct(random);
+                case 1 -> productService.updateProduct(pick(random, productIds), new ProductUpdateRequestDTO(null, (double) random.nextInt(100)));
+                case 2 -> {
+                    String name = "Product " + (++sequence);
+                    productService.updateProduct(pick(random, productIds), new ProductUpdateRequestDTO(name, null));
+                    productNames.add(name);
+                }
+                case 3 -> productService.removeProductById(pick(random, productIds));
+                case 4 -> userService.addProductForUser(pick(random, userIds), pick(random, productIds));
+                case 5 -> userService.removeProductFromUser(pick(random, userIds), pick(random, productIds));
+                case 6 -> userService.addProductsForUser(pick(random, userIds), List.of(pick(random, productIds), pick(random, productIds)));
+                case 7 -> userService.removeProductsFromUser(pick(random, userIds), List.of(pick(random, productIds), pick(random, productIds)));
+                case 8 -> userService.updateUser(pick(random, userIds), new UserUpdateRequestDTO("User " + (++sequence), null, null));
+                case 9 -> userService.promoteToAdmin(pick(random, userIds));
+                case 10 -> userService.removeUser(pick(random, userIds));
+                default -> createUser();
+            }
+        } catch (RuntimeException e) {
+            return operation + "(falhou: " + e.getClass().getSimpleName() + ")";
+        }
+        return String.valueOf(operation);
+    }
+
+    private void assertNoStaleReads(long seed, String step) {
+        ProductService products = AopTestUtils.getUltimateTargetObject(productService);
+        UserService users = AopTestUtils.getUltimateTargetObject(userService);
+        String context = "seed " + seed + ", passo " + step;
+
+        assertSameRead(context, productService, products, ProductService::listAllProducts);
+        assertSameRead(context, userService, users, UserService::getAllUsers);
+        for(Long id : productIds) {
+            assertSameRead(context, productService, products, service -> service.getProductById(id));
+        }
+        for(String name : productNames) {
+            assertSameRead(context, productService, products, service -> service.getProductByName(name));
+        }
+        for(Long id : userIds) {
+            assertSameRead(context, userService, users, service -> service.findUserById(id));
+        }
+        for(Pageable pageable : pageables(PRODUCT_SORTS)) {
+            assertSameRead(context, productService, products, service -> service.getProductsPaginated(pageable));
+        }
+        for(Pageable pageable : pageables(USER_SORTS)) {
+            assertSameRead(context, userService, users, service -> service.getUserPaginated(pageable));
+        }
+    }
+
+    private static <S> void assertSameRead(String context, S cached, S uncached, Function<S, Object> read) {
+        Object expected = readOrError(uncached, read);
+        Object actual = readOrError(cached, read);
+        assertEquals(expected, actual, () -> "leitura desatualizada do cache em " + context);
+    }
+
+    private static <S> Object readOrError(S service, Function<S, Object> read) {
+        try {
+            return read.apply(service);
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private static List<Pageable> pageables(List<Sort> sorts) {
+        List<Pageable> pageables = new ArrayList<>();
+        for(Sort sort : sorts) {
+            for(int page = 0; page < 2; page++) {
+                pageables.add(PageRequest.of(page, 3, sort));
+            }
+        }
+        return pageables;
+    }
+
+    private void createProduct(Random random) {
+        String name = "Product " + (++sequence);
+        productIds.add(productService.saveProduct(new ProductRequestDTO(name, (double) random.nextInt(100))).getId());
+        productNames.add(name);
+    }
+
+    private void createUser() {
+        int user = ++sequence;
+        userIds.add(authService.register(new UserRequestDTO("User " + user, "user" + user + "@email.com", "123456")).getId());
+    }
+
+    private static Long pick(Random random, List<Long> ids) {
+        return ids.isEmpty() ? Long.valueOf(-1) : Objects.requireNonNull(ids.get(random.nextInt(ids.size())));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.Primeiro_Projeto.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogGenerationTest {
+
+    private final CatalogGeneration catalogGeneration = new CatalogGeneration();
+
+    @AfterEach
+    void tearDown() {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deveAvancarGeracaoApenasDepoisDoCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        catalogGeneration.bump();
+        assertEquals(0, catalogGeneration.current());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, catalogGeneration.current());
+    }
+
+    @Test
+    void naoDeveAvancarGeracaoQuandoTransacaoForDesfeita() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        catalogGeneration.bump();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, catalogGeneration.current());
+    }
+
+    @Test
+    void deveCompararIfNoneMatchIgnorandoPrefixoFracoECodificacao() {
+        String etag = catalogGeneration.etag(3, 7L);
+
+        assertTrue(CatalogGeneration.matches(etag, etag));
+        assertTrue(CatalogGeneration.matches("\"outro\", W/" + etag, etag));
+        assertTrue(CatalogGeneration.matches(CatalogGeneration.forEncoding(etag, true), etag));
+        assertTrue(CatalogGeneration.matches("*", etag));
+        assertFalse(CatalogGeneration.matches(catalogGeneration.etag(4, 7L), etag));
+        assertFalse(CatalogGeneration.matches(catalogGeneration.etag(3, 8L), etag));
+        assertFalse(CatalogGeneration.matches(null, etag));
+    }
+}
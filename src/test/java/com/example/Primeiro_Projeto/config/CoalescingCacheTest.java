@@ -0,0 +1,346 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.example.Primeiro_Projeto.repositories.ProductTombstoneRepository;
+import com.example.Primeiro_Projeto.services.ProductChangeTracker;
+import com.example.Primeiro_Projeto.services.ProductService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(CoalescingCacheTest.TestConfig.class)
+class CoalescingCacheTest {
+
+    private static final int THREADS = 16;
+
+    @Configuration
+    @EnableCaching
+    @Import({CacheConfig.class, ProductService.class, CatalogGeneration.class, CacheDependencyIndex.class, CacheInvalidator.class, PageCacheGenerations.class, CacheRefreshExecutor.class})
+    static class TestConfig {
+    }
+
+    @MockitoBean
+    private ProductRepository productRepository;
+
+    @MockitoBean
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @MockitoBean
+    private ProductChangeTracker productChangeTracker;
+
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidator cacheInvalidator;
+
+    @Test
+    void deveExecutarUmaUnicaConsultaParaMissesConcorrentesDaMesmaChave() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Product product = new Product(1L, "Product 1", 10.0, new ArrayList<>(), null, 0);
+
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(product);
+        });
+
+        CoalescingCache cache = (CoalescingCache) cacheManager.getCache("productId");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<ProductResponseDTO>> results = new ArrayList<>();
+            for(int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> productService.getProductById(1L)));
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while(cache.getCoalescedWaiters() < THREADS - 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for(Future<ProductResponseDTO> result : results) {
+                assertEquals("Product 1", result.get(5, TimeUnit.SECONDS).getName());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS - 1, cache.getCoalescedWaiters());
+        assertEquals(1, cache.getLoads());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void deveExecutarUmaUnicaConsultaParaMissesConcorrentesDaListaCompleta() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(productRepository.findAll()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new Product(1L, "Product 1", 10.0, new ArrayList<>(), null, 0));
+        });
+
+        CoalescingCache cache = (CoalescingCache) cacheManager.getCache("allProducts");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<List<ProductResponseDTO>>> results = new ArrayList<>();
+            for(int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> productService.listAllProducts()));
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while(cache.getCoalescedWaiters() < THREADS - 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for(Future<List<ProductResponseDTO>> result : results) {
+                assertEquals(1, result.get(5, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, cache.getLoads());
+        verify(productRepository, times(1)).findAll();
+    }
+
+    @Test
+    void naoDeveGuardarCargaEmAndamentoQuandoProductForInvalidado() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findById(3L))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.of(new Product(3L, "Antigo", 10.0, new ArrayList<>(), null, 0));
+                })
+                .thenReturn(Optional.of(new Product(3L, "Novo", 20.0, new ArrayList<>(), null, 0)));
+
+        CoalescingCache cache = (CoalescingCache) cacheManager.getCache("productId");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<ProductResponseDTO> stale = executor.submit(() -> productService.getProductById(3L));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while(cache.getInFlightKeys() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            cacheInvalidator.productsChanged(List.of(3L));
+            release.countDown();
+
+            assertEquals("Antigo", stale.get(5, TimeUnit.SECONDS).getName());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNull(cache.get(3L));
+        assertEquals("Novo", productService.getProductById(3L).getName());
+    }
+
+    @Test
+    void naoDeveCancelarCargaDeOutraChaveQuandoProductForInvalidado() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findById(4L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(new Product(4L, "Product 4", 10.0, new ArrayList<>(), null, 0));
+        });
+
+        CoalescingCache cache = (CoalescingCache) cacheManager.getCache("productId");
+        long coalescedBefore = cache.getCoalescedWaiters();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<ProductResponseDTO> first = executor.submit(() -> productService.getProductById(4L));
+            long deadline = System.currentTimeMillis() + 5000;
+            while(cache.getInFlightKeys() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            cacheInvalidator.productsChanged(List.of(5L));
+            Future<ProductResponseDTO> second = executor.submit(() -> productService.getProductById(4L));
+            while(cache.getCoalescedWaiters() == coalescedBefore && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals("Product 4", first.get(5, TimeUnit.SECONDS).getName());
+            assertEquals("Product 4", second.get(5, TimeUnit.SECONDS).getName());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(coalescedBefore + 1, cache.getCoalescedWaiters());
+        assertNotNull(cache.get(4L));
+        verify(productRepository, times(1)).findById(4L);
+    }
+
+    @Test
+    void naoDeveGuardarBuscaPorNomeEmAndamentoQuandoProductForInvalidado() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findByName("Nome Antigo")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(new Product(6L, "Nome Antigo", 10.0, new ArrayList<>(), null, 0));
+        });
+
+        CoalescingCache cache = (CoalescingCache) cacheManager.getCache("productName");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<ProductResponseDTO> stale = executor.submit(() -> productService.getProductByName("Nome Antigo"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while(cache.getInFlightKeys() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            cacheInvalidator.productsChanged(List.of(6L));
+            release.countDown();
+
+            assertEquals("Nome Antigo", stale.get(5, TimeUnit.SECONDS).getName());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNull(cache.get("Nome Antigo"));
+    }
+
+    @Test
+    void deveServirValorExpiradoEDispararUmaUnicaRevalidacao() throws Exception {
+        AtomicLong nanos = new AtomicLong();
+        List<Runnable> refreshes = new ArrayList<>();
+        CoalescingCache cache = staleCache(nanos, refreshes);
+        AtomicInteger calls = new AtomicInteger();
+        Callable<String> loader = () -> "v" + calls.incrementAndGet();
+
+        assertEquals("v1", cache.get("key", loader));
+        nanos.addAndGet(Duration.ofSeconds(90).toNanos());
+
+        assertEquals("v1", cache.get("key", loader));
+        assertEquals("v1", cache.get("key", loader));
+        assertEquals(1, refreshes.size());
+        assertEquals(2, cache.getStaleHits());
+
+        refreshes.get(0).run();
+
+        assertEquals("v2", cache.get("key", loader));
+        assertEquals(2, calls.get());
+        assertEquals(2, cache.getStaleHits());
+        assertEquals(0, cache.getInFlightKeys());
+    }
+
+    @Test
+    void deveManterValorExpiradoQuandoRevalidacaoFalharAteOLimiteDeObsolescencia() throws Exception {
+        AtomicLong nanos = new AtomicLong();
+        List<Runnable> refreshes = new ArrayList<>();
+        CoalescingCache cache = staleCache(nanos, refreshes);
+        AtomicBoolean down = new AtomicBoolean();
+        Callable<String> loader = () -> {
+            if(down.get()) {
+                throw new IllegalStateException("banco indisponível");
+            }
+            return "v1";
+        };
+
+        assertEquals("v1", cache.get("key", loader));
+        down.set(true);
+        nanos.addAndGet(Duration.ofSeconds(70).toNanos());
+
+        assertEquals("v1", cache.get("key", loader));
+        refreshes.remove(0).run();
+        assertEquals(1, cache.getFailedRefreshes());
+
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals("v1", cache.get("key", loader));
+        refreshes.remove(0).run();
+        assertEquals(2, cache.getFailedRefreshes());
+
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("key", loader));
+    }
+
+    @Test
+    void naoDeveFixarVirtualThreadNoCarrierDuranteCargaBloqueante() throws Exception {
+        when(productRepository.findById(2L)).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return Optional.of(new Product(2L, "Product 2", 20.0, new ArrayList<>(), null, 0));
+        });
+
+        List<RecordedEvent> pinned;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<ProductResponseDTO>> results = new ArrayList<>();
+                for(int i = 0; i < THREADS; i++) {
+                    results.add(executor.submit(() -> productService.getProductById(2L)));
+                }
+                for(Future<ProductResponseDTO> result : results) {
+                    assertEquals("Product 2", result.get(5, TimeUnit.SECONDS).getName());
+                }
+            }
+
+            recording.stop();
+            Path dump = Files.createTempFile("coalescing-cache-pinning", ".jfr");
+            try {
+                recording.dump(dump);
+                pinned = RecordingFile.readAllEvents(dump);
+            } finally {
+                Files.deleteIfExists(dump);
+            }
+        }
+
+        assertTrue(pinned.isEmpty(), () -> "virtual threads fixadas no carrier: " + pinned);
+        verify(productRepository, times(1)).findById(2L);
+    }
+
+    private static CoalescingCache staleCache(AtomicLong nanos, List<Runnable> refreshes) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = Caffeine.newBuilder()
+                .ticker(nanos::get)
+                .expireAfterWrite(Duration.ofMinutes(2))
+                .build();
+        return new CoalescingCache(
+                new CaffeineCache("stale", nativeCache),
+                nativeCache,
+                new CacheDependencyIndex(),
+                () -> {},
+                Duration.ofMinutes(1),
+                refreshes::add
+        );
+    }
+}
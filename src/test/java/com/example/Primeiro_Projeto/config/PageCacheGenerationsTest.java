@@ -0,0 +1,44 @@
+package com.example.Primeiro_Projeto.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCacheGenerationsTest {
+
+    private final PageCacheGenerations generations = new PageCacheGenerations(8);
+
+    @Test
+    void deveDiferenciarChavesPelaOrdenacaoEPelaGeracao() {
+        PageCacheGenerations.PageKey byId = generations.key(PageCacheGenerations.PRODUCTS, PageRequest.of(0, 10, Sort.by("id")));
+        PageCacheGenerations.PageKey byPrice = generations.key(PageCacheGenerations.PRODUCTS, PageRequest.of(0, 10, Sort.by("price")));
+
+        assertNotEquals(byId, byPrice);
+        assertEquals(byId, generations.key(PageCacheGenerations.PRODUCTS, PageRequest.of(0, 10, Sort.by("id"))));
+
+        generations.advance(PageCacheGenerations.PRODUCTS);
+
+        assertNotEquals(byId, generations.key(PageCacheGenerations.PRODUCTS, PageRequest.of(0, 10, Sort.by("id"))));
+        assertEquals(0, generations.current(PageCacheGenerations.USERS));
+    }
+
+    @Test
+    void deveLembrarApenasPrimeirasPaginasENotificarAvancos() {
+        List<String> advanced = new ArrayList<>();
+        generations.onAdvance(advanced::add);
+
+        generations.key(PageCacheGenerations.USERS, PageRequest.of(0, 10, Sort.by("username")));
+        generations.key(PageCacheGenerations.USERS, PageRequest.of(3, 10, Sort.by("username")));
+        generations.advance(PageCacheGenerations.USERS);
+
+        assertEquals(List.of(PageRequest.of(0, 10, Sort.by("username"))), generations.firstPages(PageCacheGenerations.USERS));
+        assertTrue(generations.firstPages(PageCacheGenerations.PRODUCTS).isEmpty());
+        assertEquals(List.of(PageCacheGenerations.USERS), advanced);
+        assertThrows(IllegalArgumentException.class, () -> generations.advance("orders"));
+    }
+}
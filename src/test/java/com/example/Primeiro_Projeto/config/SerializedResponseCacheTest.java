@@ -0,0 +1,175 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.example.Primeiro_Projeto.repositories.ProductTombstoneRepository;
+import com.example.Primeiro_Projeto.services.ProductChangeTracker;
+import com.example.Primeiro_Projeto.services.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(SerializedResponseCacheTest.TestConfig.class)
+class SerializedResponseCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import({CacheConfig.class, ProductService.class, CatalogGeneration.class, CacheDependencyIndex.class, CacheInvalidator.class, PageCacheGenerations.class, CacheRefreshExecutor.class, SerializedResponseCache.class})
+    static class TestConfig {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return spy(new ObjectMapper());
+        }
+    }
+
+    @MockitoBean
+    private ProductRepository productRepository;
+
+    @MockitoBean
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @MockitoBean
+    private ProductChangeTracker productChangeTracker;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private SerializedResponseCache serializedResponseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+
+    @Test
+    void deveReutilizarBytesSerializadosEnquantoObjetoEmCacheNaoMudar() throws Exception {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(new Product(1L, "Product 1", 10.0, new ArrayList<>(), null, 0)));
+        clearInvocations(objectMapper);
+
+        byte[] first = serializedResponseCache.get("id:1", etag(), productService.getProductById(1L)).json();
+        byte[] second = serializedResponseCache.get("id:1", etag(), productService.getProductById(1L)).json();
+
+        assertSame(first, second);
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void deveSerializarNovamenteQuandoCacheDeObjetoForInvalidado() throws Exception {
+        when(productRepository.findById(2L))
+                .thenReturn(Optional.of(new Product(2L, "Antigo", 10.0, new ArrayList<>(), null, 0)))
+                .thenReturn(Optional.of(new Product(2L, "Novo", 20.0, new ArrayList<>(), null, 0)));
+
+        byte[] before = serializedResponseCache.get("id:2", etag(), productService.getProductById(2L)).json();
+        cacheManager.getCache("productId").evict(2L);
+        byte[] after = serializedResponseCache.get("id:2", etag(), productService.getProductById(2L)).json();
+
+        assertTrue(new String(before, StandardCharsets.UTF_8).contains("Antigo"));
+        assertTrue(new String(after, StandardCharsets.UTF_8).contains("Novo"));
+    }
+
+    @Test
+    void naoDeveSerializarNovamenteListaForaDoCacheEnquantoGeracaoNaoMudar() throws Exception {
+        List<ProductResponseDTO> products = List.of(new ProductResponseDTO(4L, "Product 4", 10.0, 0, 0L));
+        Cache responses = spy(cacheManager.getCache(SerializedResponseCache.CACHE_NAME));
+        SerializedResponseCache cache = new SerializedResponseCache(new ConcurrentMapCacheManager() {
+            @Override
+            public Cache getCache(String name) {
+                return responses;
+            }
+        }, objectMapper, 1024);
+        clearInvocations(objectMapper);
+
+        byte[] first = cache.get("all", etag(), new ArrayList<>(products)).json();
+        byte[] second = cache.get("all", etag(), new ArrayList<>(products)).json();
+        catalogGeneration.advance();
+        byte[] third = cache.get("all", etag(), new ArrayList<>(products)).json();
+
+        assertSame(first, second);
+        assertNotSame(second, third);
+        verify(objectMapper, times(2)).writeValueAsBytes(any());
+        verify(responses, times(2)).put(eq("all"), any());
+    }
+
+    @Test
+    void naoDeveManterObjetoDeOrigemVivoDepoisQueCacheDeObjetoForInvalidado() throws Exception {
+        when(productRepository.findById(3L)).thenReturn(Optional.of(new Product(3L, "Product 3", 10.0, new ArrayList<>(), null, 0)));
+
+        SerializedResponseCache.SerializedResponse serialized = serializedResponseCache.get("id:3", etag(), productService.getProductById(3L));
+        cacheManager.getCache("productId").evict(3L);
+        reset(objectMapper);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(serialized.source().get() != null && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(serialized.source().get());
+    }
+
+    @Test
+    void deveGuardarCopiaGzipApenasParaRespostasGrandes() throws IOException {
+        List<ProductResponseDTO> products = new ArrayList<>();
+        for(long i = 0; i < 100; i++) {
+            products.add(new ProductResponseDTO(i, "Product " + i, (double) i, 0, 0L));
+        }
+
+        SerializedResponseCache.SerializedResponse small = serializedResponseCache.get("small", etag(), List.of(products.get(0)));
+        SerializedResponseCache.SerializedResponse large = serializedResponseCache.get("large", etag(), products);
+
+        assertNull(small.gzip());
+        assertSame(small.json(), small.body(true));
+        assertNull(small.headers(true).getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        assertNotNull(large.gzip());
+        assertTrue(large.gzip().length < large.json().length);
+        assertEquals("gzip", large.headers(true).getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(large.json(), new GZIPInputStream(new ByteArrayInputStream(large.body(true))).readAllBytes());
+        assertSame(large.json(), large.body(false));
+    }
+
+    @Test
+    void deveInterpretarAcceptEncoding() {
+        assertTrue(SerializedResponseCache.acceptsGzip("gzip, deflate, br"));
+        assertTrue(SerializedResponseCache.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertFalse(SerializedResponseCache.acceptsGzip("gzip;q=0"));
+        assertFalse(SerializedResponseCache.acceptsGzip("identity"));
+        assertFalse(SerializedResponseCache.acceptsGzip(null));
+    }
+
+    private String etag() {
+        return catalogGeneration.etag(catalogGeneration.current());
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.Primeiro_Projeto.config;
+
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.example.Primeiro_Projeto.repositories.UserRepository;
+import com.example.Primeiro_Projeto.security.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:stale;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "logging.level.com.example.Primeiro_Projeto=ERROR",
+                "logging.level.org.hibernate.SQL=WARN",
+                "app.cache.defaults.expire-after-write=10m",
+                "app.cache.defaults.max-staleness=1m",
+                "app.cache.specs[allProducts].expire-after-write=10m",
+                "app.catalog-read.threads=2"
+        }
+)
+class StaleWhileRevalidateTest {
+
+    private static final Duration OUTAGE = Duration.ofSeconds(30);
+
+    @TestConfiguration
+    static class OutageConfig {
+
+        @Bean
+        FakeTicker fakeTicker() {
+            return new FakeTicker();
+        }
+
+        @Bean
+        static BeanPostProcessor outageDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof OutageDataSource)
+                            ? new OutageDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    static class FakeTicker implements Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+    }
+
+    static class OutageDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        OutageDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if(down) {
+                throw new SQLException("banco de dados indisponível");
+            }
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            if(down) {
+                throw new SQLException("banco de dados indisponível");
+            }
+            return super.getConnection(username, password);
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private FakeTicker ticker;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private List<String> paths;
+
+    private String userToken;
+
+    @BeforeEach
+    void setUp() {
+        outage().down = false;
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        Product product = productRepository.save(new Product(null, "Stale Product", 10.0, new ArrayList<>(), null, 0));
+        productRepository.save(new Product(null, "Stale Product 2", 20.0, new ArrayList<>(), null, 0));
+        User user = userRepository.save(new User(null, "User", "stale@email.com", "hash", EnumSet.of(Role.USER), new ArrayList<>(), 0, null));
+        userToken = jwtService.generateToken(user);
+        paths = List.of(
+                "/api/products/all",
+                "/api/products?page=0&size=2&sort=price",
+                "/api/products/id/" + product.getId(),
+                "/api/products/name/Stale Product",
+                "/api/catalog/products/id/" + product.getId(),
+                "/api/catalog/products?page=0&size=1"
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        outage().down = false;
+    }
+
+    @Test
+    void deveManterLeiturasDisponiveisDuranteQuedaDoBancoDeTrintaSegundos() throws InterruptedException {
+        Map<String, JsonNode> warm = readAll();
+        warm.forEach((path, body) -> assertNotNull(body, path));
+
+        outage().down = true;
+        ticker.advance(Duration.ofMinutes(10).plusSeconds(1));
+
+        for(long second = 0; second < OUTAGE.toSeconds(); second++) {
+            ticker.advance(Duration.ofSeconds(1));
+            for(String path : paths) {
+                ResponseEntity<JsonNode> response = get(path);
+                assertEquals(HttpStatus.OK, response.getStatusCode(), path);
+                assertEquals(warm.get(path), response.getBody(), path);
+                assertNotNull(response.getHeaders().getFirst(StaleReads.HEADER), path);
+            }
+        }
+
+        outage().down = false;
+        for(String path : paths) {
+            assertFresh(path);
+        }
+    }
+
+    @Test
+    void naoDeveServirDadosAlemDoLimiteDeObsolescencia() {
+        readAll();
+
+        outage().down = true;
+        ticker.advance(Duration.ofMinutes(11).plusSeconds(1));
+
+        ResponseEntity<JsonNode> response = get("/api/products?page=0&size=2&sort=price");
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(StaleReads.HEADER));
+    }
+
+    private void assertFresh(String path) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ResponseEntity<JsonNode> response = get(path);
+        while(response.getHeaders().getFirst(StaleReads.HEADER) != null && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            response = get(path);
+        }
+        assertEquals(HttpStatus.OK, response.getStatusCode(), path);
+        assertNull(response.getHeaders().getFirst(StaleReads.HEADER), path);
+    }
+
+    private Map<String, JsonNode> readAll() {
+        Map<String, JsonNode> bodies = new LinkedHashMap<>();
+        for(String path : paths) {
+            ResponseEntity<JsonNode> response = get(path);
+            assertEquals(HttpStatus.OK, response.getStatusCode(), path);
+            assertNull(response.getHeaders().getFirst(StaleReads.HEADER), path);
+            bodies.put(path, response.getBody());
+        }
+        return bodies;
+    }
+
+    private ResponseEntity<JsonNode> get(String path) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(userToken);
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class);
+    }
+
+    private OutageDataSource outage() {
+        return (OutageDataSource) dataSource;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.Primeiro_Projeto.controller;
+
+import com.example.Primeiro_Projeto.dtos.ProductUpdateRequestDTO;
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.example.Primeiro_Projeto.repositories.UserRepository;
+import com.example.Primeiro_Projeto.security.JwtService;
+import com.example.Primeiro_Projeto.services.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:catalog;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "app.catalog-read.threads=2"
+        }
+)
+class ProductCatalogRouterTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ProductService productService;
+
+    private Product product;
+
+    private String userToken;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+
+        product = productRepository.save(new Product(null, "Catalog Product", 10.0, new ArrayList<>(), null, 0));
+        productRepository.save(new Product(null, "Catalog Product 2", 20.0, new ArrayList<>(), null, 0));
+        User user = userRepository.save(new User(null, "User", "catalog@email.com", "hash", EnumSet.of(Role.USER), new ArrayList<>(), 0, null));
+        userToken = jwtService.generateToken(user);
+    }
+
+    @Test
+    void deveRetornarProdutoPorIdNoMesmoFormatoDaApiServlet() {
+        ResponseEntity<JsonNode> catalog = get("/api/catalog/products/id/" + product.getId(), userToken);
+        ResponseEntity<JsonNode> servlet = get("/api/products/id/" + product.getId(), userToken);
+
+        assertEquals(HttpStatus.OK, catalog.getStatusCode());
+        assertEquals(servlet.getBody(), catalog.getBody());
+        assertEquals("Catalog Product", catalog.getBody().get("name").asText());
+    }
+
+    @Test
+    void deveListarEPaginarProdutos() {
+        ResponseEntity<JsonNode> all = get("/api/catalog/products/all", userToken);
+        ResponseEntity<JsonNode> page = get("/api/catalog/products?page=0&size=1&sort=price&direction=desc", userToken);
+
+        assertEquals(HttpStatus.OK, all.getStatusCode());
+        assertEquals(2, all.getBody().size());
+        assertEquals(HttpStatus.OK, page.getStatusCode());
+        assertEquals(1, page.getBody().get("content").size());
+        assertEquals(2, page.getBody().get("totalElements").asInt());
+    }
+
+    @Test
+    void deveRejeitarParametrosDePaginacaoInvalidosComBadRequest() {
+        for(String path : List.of(
+                "/api/catalog/products?page=abc",
+                "/api/catalog/products?size=abc",
+                "/api/catalog/products?page=-1",
+                "/api/catalog/products?size=0",
+                "/api/catalog/products?size=-5",
+                "/api/catalog/products/id/abc"
+        )) {
+            ResponseEntity<JsonNode> response = get(path, userToken);
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(), path);
+            assertEquals(400, response.getBody().get("status").asInt(), path);
+        }
+    }
+
+    @Test
+    void deveLimitarTamanhoDaPaginaAoMaximoConfigurado() {
+        ResponseEntity<JsonNode> response = get("/api/catalog/products?page=0&size=999999999", userToken);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2000, response.getBody().get("size").asInt());
+    }
+
+    @Test
+    void deveRetornarNotFoundParaProdutoInexistente() {
+        ResponseEntity<JsonNode> response = get("/api/catalog/products/id/999999", userToken);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(404, response.getBody().get("status").asInt());
+    }
+
+    @Test
+    void deveExigirAutenticacaoComRoleUser() {
+        User admin = userRepository.save(new User(null, "Admin", "admin@email.com", "hash", EnumSet.of(Role.ADMIN), new ArrayList<>(), 0, null));
+
+        assertEquals(HttpStatus.FORBIDDEN, get("/api/catalog/products/all", null).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, get("/api/catalog/products/all", jwtService.generateToken(admin)).getStatusCode());
+    }
+
+    @Test
+    void deveResponderNotModifiedEnquantoCatalogoNaoMudar() {
+        for(String path : List.of("/api/products/all", "/api/catalog/products/all", "/api/products/id/" + product.getId(), "/api/catalog/products/id/" + product.getId())) {
+            ResponseEntity<JsonNode> first = get(path, userToken);
+            String etag = first.getHeaders().getETag();
+
+            assertNotNull(etag, path);
+            assertFalse(etag.startsWith("W/"), path);
+
+            ResponseEntity<JsonNode> second = get(path, userToken, etag);
+            assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode(), path);
+            assertNull(second.getBody(), path);
+            assertEquals(etag, second.getHeaders().getETag(), path);
+        }
+    }
+
+    @Test
+    void deveTrocarETagQuandoProdutoForAlterado() {
+        String allEtag = get("/api/products/all", userToken).getHeaders().getETag();
+        ResponseEntity<JsonNode> before = get("/api/products/id/" + product.getId(), userToken);
+
+        productService.updateProduct(product.getId(), new ProductUpdateRequestDTO(null, 99.0));
+
+        ResponseEntity<JsonNode> all = get("/api/products/all", userToken, allEtag);
+        ResponseEntity<JsonNode> after = get("/api/products/id/" + product.getId(), userToken, before.getHeaders().getETag());
+
+        assertEquals(HttpStatus.OK, all.getStatusCode());
+        assertEquals(HttpStatus.OK, after.getStatusCode());
+        assertEquals(99.0, after.getBody().get("price").asDouble());
+        assertEquals(before.getBody().get("version").asLong() + 1, after.getBody().get("version").asLong());
+        assertNotEquals(before.getHeaders().getETag(), after.getHeaders().getETag());
+    }
+
+    private ResponseEntity<JsonNode> get(String path, String token) {
+        return get(path, token, null);
+    }
+
+    private ResponseEntity<JsonNode> get(String path, String token, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if(token != null) {
+            headers.setBearerAuth(token);
+        }
+        if(ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class);
+    }
+}
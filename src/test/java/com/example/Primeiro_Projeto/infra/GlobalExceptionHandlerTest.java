@@ -0,0 +1,60 @@
+package com.example.Primeiro_Projeto.infra;
+
+import com.example.Primeiro_Projeto.exceptions.GoneException;
+import com.example.Primeiro_Projeto.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTest {
+
+    @RestController
+    static class ConflictingController {
+
+        @PutMapping("/conflito")
+        void update() {
+            throw new ObjectOptimisticLockingFailureException(Product.class, 1L);
+        }
+
+        @GetMapping("/alteracoes")
+        void changes() {
+            throw new GoneException("since 1 anterior ao histórico de exclusões retido, refaça a sincronização completa");
+        }
+    }
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ConflictingController())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void deveResponderConflictQuandoVersaoDoRegistroMudou() throws Exception {
+        mockMvc.perform(put("/conflito"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.message").value("registro alterado por outra requisição, recarregue e tente novamente"))
+                .andExpect(jsonPath("$.path").value("uri=/conflito"));
+    }
+
+    @Test
+    void deveResponderGoneQuandoCursorDeAlteracoesExpirou() throws Exception {
+        mockMvc.perform(get("/alteracoes"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.status").value(410))
+                .andExpect(jsonPath("$.message").value("since 1 anterior ao histórico de exclusões retido, refaça a sincronização completa"));
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.Primeiro_Projeto.repositories;
+
+import com.example.Primeiro_Projeto.config.CacheDependencyIndex;
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
+import com.example.Primeiro_Projeto.config.CatalogGeneration;
+import com.example.Primeiro_Projeto.config.PageCacheGenerations;
+import com.example.Primeiro_Projeto.dtos.ProductChangesDTO;
+import com.example.Primeiro_Projeto.dtos.ProductLinkBatchResponseDTO;
+import com.example.Primeiro_Projeto.dtos.ProductRequestDTO;
+import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
+import com.example.Primeiro_Projeto.dtos.ProductUnlinkBatchResponseDTO;
+import com.example.Primeiro_Projeto.dtos.ProductUpdateRequestDTO;
+import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
+import com.example.Primeiro_Projeto.exceptions.ConflictException;
+import com.example.Primeiro_Projeto.exceptions.GoneException;
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.security.TokenVersionRegistry;
+import com.example.Primeiro_Projeto.services.DataFormat;
+import com.example.Primeiro_Projeto.services.ExportService;
+import com.example.Primeiro_Projeto.services.ProductChangeTracker;
+import com.example.Primeiro_Projeto.services.ProductService;
+import com.example.Primeiro_Projeto.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.Primeiro_Projeto.repositories.SqlStatementCounter")
+@Import({UserService.class, ProductService.class, ProductChangeTracker.class, CatalogGeneration.class, CacheInvalidator.class, CacheDependencyIndex.class, PageCacheGenerations.class, ExportService.class, TokenVersionRegistry.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class ListQueryBudgetTest {
+
+    private static final int ROWS = 30;
+    private static final int QUERY_BUDGET = 4;
+    private static final int LINK_QUERY_BUDGET = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ProductChangeTracker productChangeTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        List<Product> products = new ArrayList<>();
+        for(int i = 0; i < ROWS; i++) {
+            products.add(entityManager.persist(new Product(null, "Product " + i, (double) i, new ArrayList<>(), null, 0)));
+        }
+
+        for(int i = 0; i < ROWS; i++) {
+            User user = new User(null, "User " + i, "user" + i + "@email.com", "123456", EnumSet.of(Role.USER), new ArrayList<>(), 0, null);
+            user.getProducts().add(products.get(i));
+            user.getProducts().add(products.get((i + 1) % ROWS));
+            entityManager.persist(user);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deveListarTodosOsUsersDentroDoOrcamentoDeConsultas() {
+        assertWithinBudget(() -> userService.getAllUsers().size(), ROWS);
+    }
+
+    @Test
+    void devePaginarUsersDentroDoOrcamentoDeConsultas() {
+        assertWithinBudget(() -> userService.getUserPaginated(PageRequest.of(0, ROWS, Sort.by("id"))).getNumberOfElements(), ROWS);
+    }
+
+    @Test
+    void devePaginarUsersPorCursorDentroDoOrcamentoDeConsultas() {
+        assertWithinBudget(() -> userService.getUsersByCursor("id", "asc", ROWS, null).getSize(), ROWS);
+    }
+
+    @Test
+    void deveListarTodosOsProductsDentroDoOrcamentoDeConsultas() {
+        assertWithinBudget(() -> productService.listAllProducts().size(), ROWS);
+    }
+
+    @Test
+    void deveContarAssociacoesSemCarregarAsColecoes() {
+        SqlStatementCounter.reset();
+
+        List<ProductResponseDTO> products = productService.listAllProducts();
+        List<UserResponseDTO> users = userService.getAllUsers();
+
+        assertTrue(products.stream().allMatch(product -> product.getUserCount() == 2));
+        assertTrue(users.stream().allMatch(user -> user.getProductCount() == 2));
+        assertTrue(SqlStatementCounter.count() <= 2 * QUERY_BUDGET);
+    }
+
+    @Test
+    void devePaginarUsersDeUmProductPelaTabelaDeAssociacao() {
+        Long productId = productService.listAllProducts().get(0).getId();
+
+        assertWithinBudget(() -> productService.getUsersOfProduct(productId, ROWS, null).getSize(), 2);
+    }
+
+    @Test
+    void devePaginarProductsDentroDoOrcamentoDeConsultas() {
+        assertWithinBudget(() -> productService.getProductsPaginated(PageRequest.of(0, ROWS, Sort.by("id"))).getNumberOfElements(), ROWS);
+    }
+
+    @Test
+    void devePaginarProductsPorCursorDentroDoOrcamentoDeConsultas() {
+        assertWithinBudget(() -> productService.getProductsByCursor("price", "asc", ROWS, null).getSize(), ROWS);
+    }
+
+    @Test
+    void deveRetornarVersaoJaIncrementadaAoAtualizarProductEUser() {
+        Long productId = productService.listAllProducts().get(0).getId();
+        Long userId = userService.getAllUsers().get(0).getId();
+        entityManager.clear();
+
+        ProductResponseDTO product = productService.updateProduct(productId, new ProductUpdateRequestDTO("Product Atualizado", 99.0));
+        UserResponseDTO user = userService.promoteToAdmin(userId);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1L, product.getVersion());
+        assertEquals(entityManager.find(Product.class, productId).getVersion(), product.getVersion());
+        assertEquals(1L, user.getVersion());
+        assertEquals(entityManager.find(User.class, userId).getVersion(), user.getVersion());
+    }
+
+    @Test
+    void deveVincularEDesvincularProductSemCarregarAColecao() {
+        Long userId = userService.getAllUsers().get(0).getId();
+        Long productId = productService.listAllProducts().get(ROWS / 2).getId();
+        entityManager.clear();
+
+        assertWithinBudget(() -> (int) userService.addProductForUser(userId, productId).getProductCount(), 3, LINK_QUERY_BUDGET);
+        assertThrows(ConflictException.class, () -> userService.addProductForUser(userId, productId));
+        assertWithinBudget(() -> (int) userService.removeProductFromUser(userId, productId).getProductCount(), 2, LINK_QUERY_BUDGET);
+    }
+
+    @Test
+    void deveVincularEDesvincularProductsEmLote() {
+        Long userId = userService.getAllUsers().get(0).getId();
+        List<Long> productIds = productService.listAllProducts().stream().map(ProductResponseDTO::getId).toList();
+        List<Long> requested = new ArrayList<>(productIds);
+        requested.add(-1L);
+        entityManager.clear();
+
+        ProductLinkBatchResponseDTO linked = userService.addProductsForUser(userId, requested);
+
+        assertEquals(ROWS - 2, linked.getAdded().size());
+        assertEquals(2, linked.getAlreadyPresent().size());
+        assertEquals(List.of(-1L), linked.getMissing());
+        assertEquals(ROWS, userService.findUserById(userId).getProductCount());
+
+        ProductUnlinkBatchResponseDTO unlinked = userService.removeProductsFromUser(userId, linked.getAdded());
+
+        assertEquals(linked.getAdded(), unlinked.getRemoved());
+        assertTrue(unlinked.getNotPresent().isEmpty());
+        assertEquals(2, userService.findUserById(userId).getProductCount());
+    }
+
+    @Test
+    void deveInserirProductsEmLoteComIdsAlocadosPorSequence() {
+        List<Product> products = new ArrayList<>();
+        for(int i = 0; i < 120; i++) {
+            products.add(new Product(null, "Batch Product " + i, (double) i, new ArrayList<>(), null, 0));
+        }
+
+        assertWithinBudget(() -> {
+            productRepository.saveAll(products);
+            entityManager.flush();
+            return products.size();
+        }, 120, 6);
+        assertTrue(products.stream().allMatch(product -> product.getId() != null));
+    }
+
+    @Test
+    void deveRetornarApenasAlteracoesDepoisDaMarcaDagua() {
+        long since = productService.getChanges(0, 1000).getWatermark();
+        Long updatedId = productRepository.findAll().get(0).getId();
+
+        ProductResponseDTO created = productService.saveProduct(new ProductRequestDTO("Delta Product", 1.0));
+        ProductResponseDTO removed = productService.saveProduct(new ProductRequestDTO("Delta Removed", 2.0));
+        productService.updateProduct(updatedId, new ProductUpdateRequestDTO(null, 50.0));
+        productService.removeProductById(removed.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        ProductChangesDTO[] changes = new ProductChangesDTO[1];
+        assertWithinBudget(() -> {
+            changes[0] = productService.getChanges(since, 1000);
+            return changes[0].getUpserts().size() + changes[0].getDeletes().size();
+        }, 3);
+
+        assertEquals(List.of(created.getId(), updatedId), changes[0].getUpserts().stream().map(ProductResponseDTO::getId).toList());
+        assertEquals(50.0, changes[0].getUpserts().get(1).getPrice());
+        assertEquals(2L, changes[0].getUpserts().get(1).getUserCount());
+        assertEquals(List.of(removed.getId()), changes[0].getDeletes());
+        assertFalse(changes[0].isHasNext());
+
+        ProductChangesDTO empty = productService.getChanges(changes[0].getWatermark(), 1000);
+        assertTrue(empty.getUpserts().isEmpty() && empty.getDeletes().isEmpty());
+        assertEquals(changes[0].getWatermark(), empty.getWatermark());
+    }
+
+    @Test
+    void devePaginarAlteracoesPelaMarcaDagua() {
+        long since = productService.getChanges(0, 1000).getWatermark();
+        ProductResponseDTO first = productService.saveProduct(new ProductRequestDTO("Delta First", 1.0));
+        ProductResponseDTO second = productService.saveProduct(new ProductRequestDTO("Delta Second", 2.0));
+        productService.removeProductById(first.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        ProductChangesDTO page1 = productService.getChanges(since, 1);
+        ProductChangesDTO page2 = productService.getChanges(page1.getWatermark(), 1);
+
+        assertEquals(List.of(second.getId()), page1.getUpserts().stream().map(ProductResponseDTO::getId).toList());
+        assertTrue(page1.isHasNext());
+        assertTrue(page2.getUpserts().isEmpty());
+        assertEquals(List.of(first.getId()), page2.getDeletes());
+        assertFalse(page2.isHasNext());
+        assertTrue(page2.getWatermark() > page1.getWatermark());
+    }
+
+    @Test
+    void deveRegistrarAlteracaoDoProductAoVincularEDesvincularUser() {
+        Long userId = userService.getAllUsers().get(0).getId();
+        Long productId = productService.listAllProducts().get(5).getId();
+        long since = productService.getChanges(0, 1000).getWatermark();
+        entityManager.clear();
+
+        userService.addProductForUser(userId, productId);
+        entityManager.flush();
+        entityManager.clear();
+        ProductChangesDTO linked = productService.getChanges(since, 1000);
+
+        userService.removeProductFromUser(userId, productId);
+        entityManager.flush();
+        entityManager.clear();
+        ProductChangesDTO unlinked = productService.getChanges(linked.getWatermark(), 1000);
+
+        assertEquals(List.of(productId), linked.getUpserts().stream().map(ProductResponseDTO::getId).toList());
+        assertEquals(3L, linked.getUpserts().get(0).getUserCount());
+        assertEquals(List.of(productId), unlinked.getUpserts().stream().map(ProductResponseDTO::getId).toList());
+        assertEquals(2L, unlinked.getUpserts().get(0).getUserCount());
+        assertTrue(unlinked.getWatermark() > linked.getWatermark());
+    }
+
+    @Test
+    void deveExigirSincronizacaoCompletaQuandoCursorForAnteriorAosTombstonesRemovidos() {
+        ProductResponseDTO removed = productService.saveProduct(new ProductRequestDTO("Delta Pruned", 1.0));
+        long since = productService.getChanges(0, 1000).getWatermark();
+        productService.removeProductById(removed.getId());
+        entityManager.flush();
+
+        assertEquals(1, productChangeTracker.pruneTombstones(Instant.now().plusSeconds(1)));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThrows(GoneException.class, () -> productService.getChanges(since, 1000));
+        ProductChangesDTO firstPage = productService.getChanges(0, 10);
+        ProductChangesDTO rest = productService.getChanges(firstPage.getWatermark(), 1000);
+        assertTrue(firstPage.isHasNext());
+        assertEquals(ROWS, firstPage.getUpserts().size() + rest.getUpserts().size());
+        assertTrue(rest.getDeletes().isEmpty());
+        assertTrue(firstPage.getWatermark() > productChangeTracker.prunedThrough());
+    }
+
+    @Test
+    void naoDeveExporAlteracoesPosterioresAUmaTransacaoAindaAberta() throws Exception {
+        CompletableFuture<Long> allocated = new CompletableFuture<>();
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            allocated.complete(productChangeTracker.next());
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        writer.start();
+
+        long changeSeq = allocated.get(5, TimeUnit.SECONDS);
+        assertTrue(productChangeTracker.visibleThrough() < changeSeq);
+
+        release.countDown();
+        writer.join(5000);
+        assertEquals(Long.MAX_VALUE, productChangeTracker.visibleThrough());
+    }
+
+    @Test
+    void deveExportarUsersEmNdjsonDentroDoOrcamentoDeConsultas() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertWithinBudget(() -> {
+            exportService.exportUsers(output, DataFormat.NDJSON);
+            return output.toString(StandardCharsets.UTF_8).split("\n").length;
+        }, ROWS);
+        assertTrue(output.toString(StandardCharsets.UTF_8).lines().allMatch(line -> line.contains("\"productCount\":2") && line.contains("\"roles\":[\"USER\"]")));
+    }
+
+    @Test
+    void deveExportarProductsEmCsvComCabecalho() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertWithinBudget(() -> {
+            exportService.exportProducts(output, DataFormat.CSV);
+            return (int) output.toString(StandardCharsets.UTF_8).lines().count();
+        }, ROWS + 1);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals("id,name,price,userCount", lines.get(0));
+        assertTrue(lines.get(1).endsWith(",Product 0,0.0,2"));
+    }
+
+    @Test
+    void devePersistirRolesComoMascaraNaTabelaDeUsers() {
+        Long userId = userService.getAllUsers().get(0).getId();
+        entityManager.clear();
+
+        assertWithinBudget(() -> userService.promoteToAdmin(userId).getRoles().size(), 2, LINK_QUERY_BUDGET);
+        entityManager.flush();
+        entityManager.clear();
+
+        Object mask = entityManager.getEntityManager()
+                .createNativeQuery("SELECT role_mask FROM users WHERE id = :id")
+                .setParameter("id", userId)
+                .getSingleResult();
+        assertEquals(Role.USER.getBit() | Role.ADMIN.getBit(), ((Number) mask).intValue());
+        assertEquals(EnumSet.of(Role.USER, Role.ADMIN), entityManager.find(User.class, userId).getRoles());
+    }
+
+    private void assertWithinBudget(Supplier<Integer> listing, int expectedRows) {
+        assertWithinBudget(listing, expectedRows, QUERY_BUDGET);
+    }
+
+    private void assertWithinBudget(Supplier<Integer> operation, int expectedRows, int budget) {
+        SqlStatementCounter.reset();
+
+        int rows = operation.get();
+
+        int statements = SqlStatementCounter.count();
+        assertEquals(expectedRows, rows);
+        assertTrue(statements <= budget, "esperado no máximo " + budget + " consultas, executadas " + statements);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.Primeiro_Projeto.security;
+
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET_KEY = "MySuperSecretKey123456789WithMoreThan32Characters";
+
+    private JwtService jwtService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET_KEY, Duration.ofHours(24), 100);
+        user = new User(1L, "User", "user@email.com", "123456", EnumSet.of(Role.USER), new ArrayList<>(), 3, null);
+    }
+
+    @Test
+    void deveRetornarClaimsSeTokenForValido() {
+        String token = jwtService.generateToken(user);
+
+        Optional<Claims> result = jwtService.parseAndVerify(token);
+
+        assertTrue(result.isPresent());
+        assertEquals("user@email.com", result.get().getSubject());
+        assertEquals(1L, result.get().get(JwtService.CLAIM_USER_ID, Long.class));
+        assertEquals(3, result.get().get(JwtService.CLAIM_TOKEN_VERSION, Integer.class));
+    }
+
+    @Test
+    void deveReutilizarClaimsJaVerificadasParaOMesmoToken() {
+        String token = jwtService.generateToken(user);
+
+        Claims first = jwtService.parseAndVerify(token).orElseThrow();
+        Claims second = jwtService.parseAndVerify(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void deveRejeitarTokenComPayloadAlteradoEMesmaAssinatura() {
+        String token = jwtService.generateToken(user);
+        String other = jwtService.generateToken(new User(2L, "Other", "other@email.com", "123456", EnumSet.of(Role.ADMIN), new ArrayList<>(), 0, null));
+
+        jwtService.parseAndVerify(token);
+
+        String forged = other.substring(0, other.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        assertTrue(jwtService.parseAndVerify(forged).isEmpty());
+    }
+
+    @Test
+    void deveRejeitarTokenExpirado() {
+        String token = Jwts.builder()
+                .setSubject("user@email.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertTrue(jwtService.parseAndVerify(token).isEmpty());
+    }
+
+    @Test
+    void deveRejeitarTokenMalFormado() {
+        assertTrue(jwtService.parseAndVerify("token-invalido").isEmpty());
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.Primeiro_Projeto.security;
+
+import com.example.Primeiro_Projeto.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PasswordHashingExecutor hashingExecutor;
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashingExecutor = new PasswordHashingExecutor(meterRegistry, 1, 2, Duration.ofSeconds(5));
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void deveRecusarComServiceUnavailableQuandoFilaEstiverCheia() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> blocking = callers.submit(() -> hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> {
+            running.countDown();
+            await(release);
+            return "primeiro";
+        }));
+        running.await();
+        Future<String> queued1 = callers.submit(() -> hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> "segundo"));
+        Future<String> queued2 = callers.submit(() -> hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> "terceiro"));
+        waitForQueueDepth(2);
+
+        ServiceUnavailableException rejected = assertThrows(ServiceUnavailableException.class,
+                () -> hashingExecutor.execute(PasswordHashingExecutor.Operation.REGISTER, () -> "recusado"));
+
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.counter("password.hashing.rejected").count());
+
+        release.countDown();
+        assertEquals("primeiro", blocking.get());
+        assertEquals("segundo", queued1.get());
+        assertEquals("terceiro", queued2.get());
+    }
+
+    @Test
+    void deveExecutarLoginAntesDeRegisterQuandoAmbosEstiveremNaFila() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Future<Boolean> blocking = callers.submit(() -> hashingExecutor.execute(PasswordHashingExecutor.Operation.REGISTER, () -> {
+            running.countDown();
+            return await(release);
+        }));
+        running.await();
+        Future<Boolean> register = callers.submit(() -> hashingExecutor.execute(PasswordHashingExecutor.Operation.REGISTER, () -> order.add("register")));
+        waitForQueueDepth(1);
+        Future<Boolean> login = callers.submit(() -> hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> order.add("login")));
+        waitForQueueDepth(2);
+
+        release.countDown();
+        blocking.get();
+        register.get();
+        login.get();
+
+        assertEquals(List.of("login", "register"), order);
+    }
+
+    @Test
+    void deveRegistrarTempoDeFilaETempoDeHashPorOperacao() {
+        hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> true);
+        hashingExecutor.execute(PasswordHashingExecutor.Operation.REGISTER, () -> "hash");
+
+        assertEquals(1, meterRegistry.get("password.hashing.queue").tag("operation", "login").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "login").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "register").timer().count());
+    }
+
+    @Test
+    void deveManterVagaOcupadaEnquantoHashContinuaAposTimeout() throws Exception {
+        useExecutor(0, Duration.ofMillis(100));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Boolean> slow = callers.submit(() -> hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> {
+            running.countDown();
+            return await(release);
+        }));
+        running.await();
+        ExecutionException timedOut = assertThrows(ExecutionException.class, slow::get);
+        assertInstanceOf(ServiceUnavailableException.class, timedOut.getCause());
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> hashingExecutor.execute(PasswordHashingExecutor.Operation.REGISTER, () -> "recusado"));
+        assertEquals(0.0, meterRegistry.get("password.hashing.queue.depth").gauge().value());
+
+        release.countDown();
+        assertEquals("liberado", executeWhenSlotFrees());
+    }
+
+    @Test
+    void deveLiberarVagaSemRegistrarFilaQuandoTarefaForCanceladaAntesDeIniciar() throws Exception {
+        useExecutor(1, Duration.ofMillis(300));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        callers.submit(() -> hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> {
+            running.countDown();
+            return await(release);
+        }));
+        running.await();
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> "cancelado"));
+
+        Future<String> next = callers.submit(() -> hashingExecutor.execute(PasswordHashingExecutor.Operation.REGISTER, () -> "proximo"));
+        waitForQueueDepth(2);
+        release.countDown();
+
+        assertEquals("proximo", next.get());
+        assertEquals(1, meterRegistry.get("password.hashing.queue").tag("operation", "login").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing.queue").tag("operation", "register").timer().count());
+    }
+
+    @Test
+    void devePropagarExcecaoLancadaPeloHash() {
+        assertThrows(IllegalArgumentException.class, () -> hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> {
+            throw new IllegalArgumentException("hash inválido");
+        }));
+    }
+
+    @Test
+    void deveIndicarRehashQuandoCustoDoHashDiferirDoConfigurado() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 5, hashingExecutor);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("123456")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("123456")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("123456")));
+        assertFalse(encoder.upgradeEncoding("texto_sem_formato_bcrypt"));
+    }
+
+    @Test
+    void deveRehashearSenhaNoLoginQuandoCustoMudar() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 5, hashingExecutor);
+        UserDetails stored = User.withUsername("user@email.com")
+                .password(new BCryptPasswordEncoder(4).encode("123456"))
+                .roles("USER")
+                .build();
+        AtomicReference<String> rehashed = new AtomicReference<>();
+        UserDetailsPasswordService passwordService = (user, newPassword) -> {
+            rehashed.set(newPassword);
+            return User.withUserDetails(user).password(newPassword).build();
+        };
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(username -> stored);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(passwordService);
+        provider.authenticate(new UsernamePasswordAuthenticationToken("user@email.com", "123456"));
+
+        assertNotNull(rehashed.get());
+        assertTrue(rehashed.get().startsWith("$2a$05$"));
+        assertTrue(encoder.matches("123456", rehashed.get()));
+    }
+
+    private boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void useExecutor(int queueCapacity, Duration timeout) {
+        hashingExecutor.shutdown();
+        meterRegistry = new SimpleMeterRegistry();
+        hashingExecutor = new PasswordHashingExecutor(meterRegistry, 1, queueCapacity, timeout);
+    }
+
+    private String executeWhenSlotFrees() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(true) {
+            try {
+                return hashingExecutor.execute(PasswordHashingExecutor.Operation.LOGIN, () -> "liberado");
+            } catch (ServiceUnavailableException e) {
+                if(System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(meterRegistry.get("password.hashing.queue.depth").gauge().value() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
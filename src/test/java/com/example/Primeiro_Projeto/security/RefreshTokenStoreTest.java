@@ -0,0 +1,154 @@
+package com.example.Primeiro_Projeto.security;
+
+import com.example.Primeiro_Projeto.exceptions.UnauthorizedException;
+import com.example.Primeiro_Projeto.model.RefreshToken;
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.repositories.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenStoreTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    private RefreshTokenStore refreshTokenStore;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenStore = new RefreshTokenStore(refreshTokenRepository, tokenVersionRegistry, Duration.ofDays(14), 1000);
+        user = new User(1L, "User", "user@email.com", "hash", EnumSet.of(Role.USER), new ArrayList<>(), 2, null);
+    }
+
+    @Test
+    void deveEmitirRefreshTokenGuardandoApenasOHash() {
+        assignIdsOnSave();
+
+        RefreshTokenStore.IssuedToken issued = refreshTokenStore.issue(user);
+
+        assertEquals(43, issued.token().length());
+        assertEquals(1L, issued.entry().userId());
+        assertEquals(2, issued.entry().tokenVersion());
+        verify(refreshTokenRepository).deleteExpiredByUserId(eq(1L), any(Instant.class));
+        verify(refreshTokenRepository).save(argThat(saved -> saved.getTokenHash().length() == 43 && !saved.getTokenHash().equals(issued.token())));
+    }
+
+    @Test
+    void deveRotacionarRefreshTokenNaMesmaFamiliaSemConsultarOBanco() {
+        assignIdsOnSave();
+        RefreshTokenStore.IssuedToken issued = refreshTokenStore.issue(user);
+        when(refreshTokenRepository.markUsed(issued.entry().id())).thenReturn(1);
+        when(tokenVersionRegistry.isCurrent(1L, 2)).thenReturn(true);
+
+        RefreshTokenStore.IssuedToken rotated = refreshTokenStore.rotate(issued.token());
+
+        assertNotEquals(issued.token(), rotated.token());
+        assertEquals(issued.entry().familyId(), rotated.entry().familyId());
+        assertEquals(EnumSet.of(Role.USER), rotated.entry().roles());
+        verify(refreshTokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    void deveRevogarFamiliaAoReutilizarRefreshTokenJaRotacionado() {
+        assignIdsOnSave();
+        RefreshTokenStore.IssuedToken issued = refreshTokenStore.issue(user);
+        when(refreshTokenRepository.markUsed(anyLong())).thenReturn(1);
+        when(tokenVersionRegistry.isCurrent(1L, 2)).thenReturn(true);
+        RefreshTokenStore.IssuedToken rotated = refreshTokenStore.rotate(issued.token());
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenStore.rotate(issued.token()));
+        assertThrows(UnauthorizedException.class, () -> refreshTokenStore.rotate(rotated.token()));
+
+        verify(refreshTokenRepository).deleteByFamilyId(issued.entry().familyId());
+    }
+
+    @Test
+    void deveRejeitarTokensDaFamiliaRevogadaSemConsultarOBanco() {
+        assignIdsOnSave();
+        RefreshTokenStore.IssuedToken issued = refreshTokenStore.issue(user);
+        RefreshTokenStore.IssuedToken other = refreshTokenStore.issue(user);
+
+        refreshTokenStore.revoke(issued.token());
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenStore.rotate(issued.token()));
+        verify(refreshTokenRepository).deleteByFamilyId(issued.entry().familyId());
+        verify(refreshTokenRepository, never()).findByTokenHash(anyString());
+        verify(refreshTokenRepository, never()).markUsed(anyLong());
+
+        when(refreshTokenRepository.markUsed(anyLong())).thenReturn(1);
+        when(tokenVersionRegistry.isCurrent(1L, 2)).thenReturn(true);
+        assertNotNull(refreshTokenStore.rotate(other.token()));
+    }
+
+    @Test
+    void deveRevogarFamiliaQuandoOutraInstanciaJaConsumiuOToken() {
+        RefreshToken stored = storedToken(Instant.now().plusSeconds(60));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.markUsed(stored.getId())).thenReturn(0);
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenStore.rotate("token"));
+
+        verify(refreshTokenRepository).deleteByFamilyId(stored.getFamilyId());
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void deveRejeitarRefreshTokenExpiradoOuDesconhecido() {
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+                .thenReturn(Optional.of(storedToken(Instant.now().minusSeconds(1))))
+                .thenReturn(Optional.empty());
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenStore.rotate("expirado"));
+        assertThrows(UnauthorizedException.class, () -> refreshTokenStore.rotate("desconhecido"));
+
+        verify(refreshTokenRepository, never()).markUsed(anyLong());
+    }
+
+    @Test
+    void deveRevogarFamiliaQuandoVersaoDoTokenDoUserMudou() {
+        RefreshToken stored = storedToken(Instant.now().plusSeconds(60));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.markUsed(stored.getId())).thenReturn(1);
+        when(tokenVersionRegistry.isCurrent(1L, 2)).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenStore.rotate("token"));
+
+        verify(refreshTokenRepository).deleteByFamilyId(stored.getFamilyId());
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    private RefreshToken storedToken(Instant expiresAt) {
+        return new RefreshToken(10L, "hash", UUID.randomUUID(), 1L, "user@email.com", EnumSet.of(Role.USER), 2, expiresAt, false);
+    }
+
+    private void assignIdsOnSave() {
+        AtomicLong ids = new AtomicLong();
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId(ids.incrementAndGet());
+            return token;
+        });
+    }
+}
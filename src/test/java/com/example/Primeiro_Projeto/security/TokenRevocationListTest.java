@@ -0,0 +1,105 @@
+package com.example.Primeiro_Projeto.security;
+
+import com.example.Primeiro_Projeto.model.RevokedToken;
+import com.example.Primeiro_Projeto.model.Role;
+import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.repositories.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    private static final String SECRET_KEY = "MySuperSecretKey123456789WithMoreThan32Characters";
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationList tokenRevocationList;
+
+    private JwtService jwtService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationList = new TokenRevocationList(revokedTokenRepository, Duration.ofMinutes(15), Duration.ofMinutes(1), 1024);
+        jwtService = new JwtService(SECRET_KEY, Duration.ofMinutes(15), 100);
+        user = new User(1L, "User", "user@email.com", "123456", EnumSet.of(Role.USER), new ArrayList<>(), 0, null);
+    }
+
+    @Test
+    void deveRevogarApenasOTokenInformadoEPersistirARevogacao() {
+        Claims revoked = claimsOf(jwtService.generateToken(user));
+        Claims other = claimsOf(jwtService.generateToken(user));
+
+        tokenRevocationList.revoke(revoked.getId(), revoked.getExpiration().toInstant());
+
+        assertTrue(tokenRevocationList.isRevoked(revoked));
+        assertFalse(tokenRevocationList.isRevoked(other));
+        verify(revokedTokenRepository).deleteExpired(any(Instant.class));
+        verify(revokedTokenRepository).save(argThat(saved -> saved.getJti().equals(revoked.getId())));
+    }
+
+    @Test
+    void deveIgnorarRevogacaoDeTokenJaExpirado() {
+        tokenRevocationList.revoke("jti-expirado", Instant.now().minusSeconds(1));
+
+        assertFalse(tokenRevocationList.isRevoked("jti-expirado", Instant.now().minusSeconds(1).toEpochMilli()));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void deveRecarregarRevogacoesPersistidasNaInicializacao() {
+        Instant inFiveMinutes = Instant.now().plus(Duration.ofMinutes(5));
+        Instant inTwoHours = Instant.now().plus(Duration.ofHours(2));
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class))).thenReturn(List.of(
+                new RevokedToken("jti-1", inFiveMinutes),
+                new RevokedToken("jti-2", inTwoHours)
+        ));
+
+        tokenRevocationList.load();
+
+        assertTrue(tokenRevocationList.isRevoked("jti-1", inFiveMinutes.toEpochMilli()));
+        assertTrue(tokenRevocationList.isRevoked("jti-2", inTwoHours.toEpochMilli()));
+        assertFalse(tokenRevocationList.isRevoked("jti-3", inFiveMinutes.toEpochMilli()));
+    }
+
+    @Test
+    void deveSepararRevogacoesPorBucketDeExpiracao() {
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(10));
+        for(int i = 0; i < 5000; i++) {
+            tokenRevocationList.revoke("jti-" + i, expiresAt);
+        }
+
+        assertTrue(tokenRevocationList.isRevoked("jti-4999", expiresAt.toEpochMilli()));
+        assertFalse(tokenRevocationList.isRevoked("jti-4999", expiresAt.plus(Duration.ofMinutes(2)).toEpochMilli()));
+        assertFalse(tokenRevocationList.isRevoked("jti-5000", expiresAt.toEpochMilli()));
+    }
+
+    @Test
+    void naoDeveConsiderarRevogadoTokenSemJti() {
+        Claims claims = claimsOf(jwtService.generateToken(user));
+        claims.remove(Claims.ID);
+
+        assertFalse(tokenRevocationList.isRevoked(claims));
+    }
+
+    private Claims claimsOf(String token) {
+        return jwtService.parseAndVerify(token).orElseThrow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.Primeiro_Projeto.security;
+
+import com.example.Primeiro_Projeto.repositories.UserRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionRegistry = new TokenVersionRegistry(userRepository, 100);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void deveAplicarNovaVersaoApenasDepoisDoCommit() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 0));
+
+        tokenVersionRegistry.update(1L, 1);
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 0));
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertFalse(tokenVersionRegistry.isCurrent(1L, 0));
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 1));
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void naoDeveAlterarVersaoQuandoTransacaoForDesfeita() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 0));
+
+        tokenVersionRegistry.update(1L, 1);
+        tokenVersionRegistry.remove(1L);
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 0));
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void deveConsultarBancoNovamenteDepoisDeRemoverUsuario() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0)).thenReturn(Optional.empty());
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 0));
+
+        tokenVersionRegistry.remove(1L);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertFalse(tokenVersionRegistry.isCurrent(1L, 0));
+        verify(userRepository, times(2)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void naoDeveGuardarVersaoCarregadaAntesDeRemocaoConcorrente() {
+        when(userRepository.findTokenVersionById(1L))
+                .thenAnswer(invocation -> {
+                    tokenVersionRegistry.remove(1L);
+                    TransactionSynchronizationUtils.triggerAfterCommit();
+                    return Optional.of(0);
+                })
+                .thenReturn(Optional.of(1));
+
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 0));
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 1));
+        assertTrue(tokenVersionRegistry.isCurrent(1L, 1));
+        verify(userRepository, times(2)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void naoDeveFixarVirtualThreadNoCarrierDuranteConsultaDaVersao() throws Exception {
+        when(userRepository.findTokenVersionById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return Optional.of(0);
+        });
+
+        List<RecordedEvent> pinned;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<Boolean>> results = new ArrayList<>();
+                for(int i = 0; i < 16; i++) {
+                    results.add(executor.submit(() -> tokenVersionRegistry.isCurrent(1L, 0)));
+                }
+                for(Future<Boolean> result : results) {
+                    assertTrue(result.get(5, TimeUnit.SECONDS));
+                }
+            }
+
+            recording.stop();
+            Path dump = Files.createTempFile("token-version-pinning", ".jfr");
+            try {
+                recording.dump(dump);
+                pinned = RecordingFile.readAllEvents(dump);
+            } finally {
+                Files.deleteIfExists(dump);
+            }
+        }
+
+        assertTrue(pinned.isEmpty(), () -> "virtual threads fixadas no carrier: " + pinned);
+    }
+}
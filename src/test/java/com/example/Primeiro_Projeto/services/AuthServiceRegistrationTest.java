@@ -0,0 +1,61 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.dtos.UserRequestDTO;
+import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
+import com.example.Primeiro_Projeto.repositories.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:registration;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.Primeiro_Projeto=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+class AuthServiceRegistrationTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void naoDeveManterTransacaoNemConexaoAbertasDuranteHashDaSenha() {
+        AtomicBoolean transactionActive = new AtomicBoolean(true);
+        AtomicInteger activeConnections = new AtomicInteger(-1);
+        doAnswer(invocation -> {
+            transactionActive.set(TransactionSynchronizationManager.isActualTransactionActive());
+            activeConnections.set(((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections());
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).encode(any());
+
+        UserResponseDTO registered = authService.register(new UserRequestDTO("Registro", "registro@email.com", "123456"));
+
+        assertFalse(transactionActive.get());
+        assertEquals(0, activeConnections.get());
+        assertTrue(userRepository.findById(registered.getId()).isPresent());
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.Primeiro_Projeto.services;
 
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
 import com.example.Primeiro_Projeto.dtos.LoginRequestDTO;
+import com.example.Primeiro_Projeto.dtos.RefreshTokenRequestDTO;
+import com.example.Primeiro_Projeto.dtos.TokenResponseDTO;
 import com.example.Primeiro_Projeto.dtos.UserRequestDTO;
 import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
 import com.example.Primeiro_Projeto.exceptions.ConflictException;
@@ -9,22 +12,30 @@ import com.example.Primeiro_Projeto.model.Role;
 import com.example.Primeiro_Projeto.model.User;
 import com.example.Primeiro_Projeto.repositories.UserRepository;
 import com.example.Primeiro_Projeto.security.JwtService;
+import com.example.Primeiro_Projeto.exceptions.UnauthorizedException;
+import com.example.Primeiro_Projeto.security.RefreshTokenStore;
+import com.example.Primeiro_Projeto.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.context.support.BeanDefinitionDsl;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,8 +49,6 @@ class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
-    @Mock
-    private ModelMapper modelMapper;
 
     @Mock
     private AuthenticationManager authenticationManager;
@@ -50,6 +59,18 @@ class AuthServiceTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private Claims claims;
+
     @InjectMocks
     private AuthService authService;
 
@@ -61,17 +82,16 @@ class AuthServiceTest {
 
     @BeforeEach
     void setUp() {
-        user = new User(1L, "User", "user@email.com", "123456", List.of(Role.USER), new ArrayList<>());
+        user = new User(1L, "User", "user@email.com", "123456", EnumSet.of(Role.USER), new ArrayList<>(), 0, null);
         request = new UserRequestDTO("Novo User", "novo_user@email.com", "123456");
         requestLogin = new LoginRequestDTO("user@email.com", "123456");
     }
 
     @Test
     void deveSalvarUserSeTodosOsDadosForemValidos() {
-        when(modelMapper.map(request, User.class)).thenReturn(new User(null, "Novo User", "novo_user@email.com", "123456", new ArrayList<>(), new ArrayList<>()));
         when(userRepository.existsByEmail("novo_user@email.com")).thenReturn(false);
         when(passwordEncoder.encode("123456")).thenReturn("senha_criptografada");
-        when(userRepository.save(any(User.class))).thenReturn(new User(1L, "Novo User", "novo_user@email.com", "senha_criptografada", List.of(Role.USER), new ArrayList<>()));
+        when(userRepository.save(any(User.class))).thenReturn(new User(1L, "Novo User", "novo_user@email.com", "senha_criptografada", EnumSet.of(Role.USER), new ArrayList<>(), 0, null));
 
         UserResponseDTO result = authService.register(request);
 
@@ -79,23 +99,21 @@ class AuthServiceTest {
         assertEquals("Novo User", result.getUsername());
         assertEquals("novo_user@email.com", result.getEmail());
 
-        verify(modelMapper).map(request, User.class);
         verify(userRepository).existsByEmail("novo_user@email.com");
         verify(passwordEncoder).encode("123456");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).save(argThat(saved -> "Novo User".equals(saved.getUsername()) && saved.getRoles().contains(Role.USER)));
     }
 
     @Test
     void deveLancarExcecaoAoCriarUserESeuEmailJaEstiverEmUso() {
-        when(modelMapper.map(request, User.class)).thenReturn(new User(null, "Novo User", "novo_user@email.com", "123456", new ArrayList<>(), new ArrayList<>()));
         when(userRepository.existsByEmail("novo_user@email.com")).thenReturn(true);
 
         ConflictException conflict = assertThrows(ConflictException.class, () -> authService.register(request));
 
         assertTrue(conflict.getMessage().contains("email"));
 
-        verify(modelMapper).map(request, User.class);
         verify(userRepository).existsByEmail("novo_user@email.com");
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -103,16 +121,34 @@ class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
 
         when(userRepository.findByEmail("user@email.com")).thenReturn(Optional.of(user));
-        when(jwtService.generateToken("user@email.com")).thenReturn("token.jwt.generate");
+        when(jwtService.generateToken(user)).thenReturn("token.jwt.generate");
+        when(jwtService.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+        when(refreshTokenStore.issue(user)).thenReturn(issuedToken("refresh_token"));
 
-        String result = authService.login(requestLogin);
+        TokenResponseDTO result = authService.login(requestLogin);
 
         assertNotNull(result);
-        assertEquals("token.jwt.generate", result);
+        assertEquals("token.jwt.generate", result.getAccessToken());
+        assertEquals("refresh_token", result.getRefreshToken());
+        assertEquals(900, result.getExpiresIn());
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository).findByEmail("user@email.com");
-        verify(jwtService).generateToken("user@email.com");
+        verify(jwtService).generateToken(user);
+    }
+
+    @Test
+    void deveRenovarAccessTokenSemAutenticarNemBuscarUser() {
+        when(refreshTokenStore.rotate("refresh_token")).thenReturn(issuedToken("novo_refresh_token"));
+        when(jwtService.generateToken(1L, "user@email.com", EnumSet.of(Role.USER), 0)).thenReturn("token.jwt.renovado");
+        when(jwtService.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+
+        TokenResponseDTO result = authService.refresh(new RefreshTokenRequestDTO("refresh_token"));
+
+        assertEquals("token.jwt.renovado", result.getAccessToken());
+        assertEquals("novo_refresh_token", result.getRefreshToken());
+
+        verifyNoInteractions(authenticationManager, passwordEncoder, userRepository);
     }
 
     @Test
@@ -126,4 +162,32 @@ class AuthServiceTest {
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository).findByEmail("user@email.com");
     }
-}
\ No newline at end of file
+
+    @Test
+    void deveRevogarAccessTokenEFamiliaDeRefreshTokenNoLogout() {
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+        when(jwtService.parseAndVerify("token.jwt")).thenReturn(Optional.of(claims));
+        when(claims.getId()).thenReturn("jti");
+        when(claims.getExpiration()).thenReturn(expiration);
+
+        authService.logout("Bearer token.jwt", "refresh_token");
+
+        verify(tokenRevocationList).revoke("jti", expiration.toInstant());
+        verify(refreshTokenStore).revoke("refresh_token");
+    }
+
+    @Test
+    void deveLancarExcecaoNoLogoutSemAccessTokenValido() {
+        when(jwtService.parseAndVerify("token.invalido")).thenReturn(Optional.empty());
+
+        assertThrows(UnauthorizedException.class, () -> authService.logout(null, null));
+        assertThrows(UnauthorizedException.class, () -> authService.logout("Bearer token.invalido", null));
+
+        verifyNoInteractions(tokenRevocationList, refreshTokenStore);
+    }
+
+    private RefreshTokenStore.IssuedToken issuedToken(String token) {
+        return new RefreshTokenStore.IssuedToken(token, new RefreshTokenStore.Entry(
+                1L, UUID.randomUUID(), 1L, "user@email.com", EnumSet.of(Role.USER), 0, Instant.now().plusSeconds(60), false));
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.Primeiro_Projeto.services;
+
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
+import com.example.Primeiro_Projeto.config.CatalogGeneration;
+import com.example.Primeiro_Projeto.dtos.ProductImportReportDTO;
+import com.example.Primeiro_Projeto.exceptions.BadRequestException;
+import com.example.Primeiro_Projeto.exceptions.ServiceUnavailableException;
+import com.example.Primeiro_Projeto.model.Product;
+import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductChangeTracker productChangeTracker;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(productChangeTracker.reserve(anyInt()))
+                .thenAnswer(invocation -> LongStream.rangeClosed(1, invocation.<Integer>getArgument(0)).boxed().toList());
+        productImportService = new ProductImportService(
+                productRepository,
+                productChangeTracker,
+                new CatalogGeneration(),
+                cacheInvalidator,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(),
+                transactionManager,
+                meterRegistry,
+                2,
+                1,
+                64
+        );
+    }
+
+    @Test
+    void deveImportarCsvEmLotesComBatchPorLote() {
+        List<List<Product>> savedChunks = captureSavedChunks();
+
+        ProductImportReportDTO report = productImportService.importProducts(body("""
+                name,price
+                Product 1,10.5
+                "Product, 2",20
+                Product 3,30
+                """), DataFormat.CSV);
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(3, report.getImported());
+        assertTrue(report.getErrors().isEmpty());
+        assertEquals(2, savedChunks.size());
+        assertEquals("Product, 2", savedChunks.get(0).get(1).getName());
+        assertEquals(30.0, savedChunks.get(1).get(0).getPrice());
+        assertEquals(3.0, meterRegistry.counter("products.import.rows", "result", "imported").count());
+    }
+
+    @Test
+    void deveImportarNdjson() {
+        List<List<Product>> savedChunks = captureSavedChunks();
+
+        ProductImportReportDTO report = productImportService.importProducts(body("""
+                {"name": "Product 1", "price": 10.0}
+                {"name": "Product 2", "price": 20.0}
+                """), DataFormat.NDJSON);
+
+        assertEquals(2, report.getImported());
+        assertEquals("Product 2", savedChunks.get(0).get(1).getName());
+    }
+
+    @Test
+    void deveImportarCsvComCampoEntreAspasEmVariasLinhas() {
+        List<List<Product>> savedChunks = captureSavedChunks();
+
+        ProductImportReportDTO report = productImportService.importProducts(body("""
+                name,price
+                "Product
+                multi-linha",10
+                Product 2,20
+                "Product ""3",abc
+                """), DataFormat.CSV);
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(2, report.getImported());
+        assertEquals("Product\nmulti-linha", savedChunks.get(0).get(0).getName());
+        assertEquals(5, report.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void deveRejeitarRegistroNuloERegistroLongoSemInterromperAImportacao() {
+        List<List<Product>> savedChunks = captureSavedChunks();
+
+        ProductImportReportDTO report = productImportService.importProducts(body("""
+                null
+                {"name": "%s", "price": 10.0}
+                {"name": "Product 3", "price": 30.0}
+                """.formatted("x".repeat(100))), DataFormat.NDJSON);
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals(1, report.getErrors().get(0).getLine());
+        assertEquals("linha inválida: registro vazio", report.getErrors().get(0).getMessage());
+        assertEquals("linha inválida: registro excede 64 caracteres", report.getErrors().get(1).getMessage());
+        assertEquals("Product 3", savedChunks.get(0).get(0).getName());
+    }
+
+    @Test
+    void deveReportarLinhasInvalidasEDuplicadasSemInterromperAImportacao() {
+        when(productRepository.findExistingNames(anyCollection())).thenAnswer(invocation -> {
+            List<String> existing = new ArrayList<>();
+            for(Object name : invocation.<Collection<?>>getArgument(0)) {
+                if("Product Existente".equals(name)) {
+                    existing.add((String) name);
+                }
+            }
+            return existing;
+        });
+
+        ProductImportReportDTO report = productImportService.importProducts(body("""
+                name,price
+                Product Existente,10
+                ab,-1
+                Product 1,abc
+                Product 2,20
+                Product 2,25
+                """), DataFormat.CSV);
+
+        assertEquals(5, report.getProcessed());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(2, report.getRejected());
+        assertEquals(List.of(2L, 3L, 4L, 6L), report.getErrors().stream().map(error -> error.getLine()).sorted().toList());
+        assertTrue(report.getErrors().stream().anyMatch(error -> error.getMessage().contains("Product Existente")));
+    }
+
+    @Test
+    void deveRejeitarLoteQuandoBancoRecusarNameGravadoConcorrentemente() {
+        when(productRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("products_name_key"));
+
+        ProductImportReportDTO report = productImportService.importProducts(body("""
+                {"name": "Product 1", "price": 10.0}
+                """), DataFormat.NDJSON);
+
+        assertEquals(0, report.getImported());
+        assertEquals(1, report.getRejected());
+    }
+
+    @Test
+    void deveLancarExcecaoQuandoCabecalhoCsvForInvalido() {
+        assertThrows(BadRequestException.class, () -> productImportService.importProducts(body("""
+                nome,preco
+                Product 1,10
+                """), DataFormat.CSV));
+    }
+
+    @Test
+    void deveLancarExcecaoQuandoFormatoNaoForSuportado() {
+        assertThrows(BadRequestException.class, () -> DataFormat.fromContentType("application/xml"));
+        assertEquals(DataFormat.NDJSON, DataFormat.fromContentType("application/x-ndjson"));
+        assertEquals(DataFormat.CSV, DataFormat.fromContentType("text/csv;charset=UTF-8"));
+        assertEquals(DataFormat.CSV, DataFormat.fromName("CSV"));
+    }
+
+    @Test
+    void deveRecusarImportacaoAcimaDoLimiteDeConcorrencia() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream blockingBody = new InputStream() {
+            @Override
+            public int read() {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return -1;
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProductImportReportDTO> running = executor.submit(() -> productImportService.importProducts(blockingBody, DataFormat.NDJSON));
+            reading.await();
+
+            assertThrows(ServiceUnavailableException.class, () -> productImportService.importProducts(body(""), DataFormat.NDJSON));
+
+            release.countDown();
+            assertEquals(0, running.get().getProcessed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<List<Product>> captureSavedChunks() {
+        List<List<Product>> savedChunks = new ArrayList<>();
+        when(productRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            savedChunks.add(products);
+            return products;
+        });
+        return savedChunks;
+    }
+
+    private InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
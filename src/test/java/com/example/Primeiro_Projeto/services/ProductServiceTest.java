@@ -1,19 +1,24 @@
 package com.example.Primeiro_Projeto.services;
 
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
+import com.example.Primeiro_Projeto.config.CatalogGeneration;
+import com.example.Primeiro_Projeto.dtos.CursorPageDTO;
 import com.example.Primeiro_Projeto.dtos.ProductRequestDTO;
 import com.example.Primeiro_Projeto.dtos.ProductResponseDTO;
 import com.example.Primeiro_Projeto.dtos.ProductUpdateRequestDTO;
+import com.example.Primeiro_Projeto.dtos.UserFromProductDTO;
+import com.example.Primeiro_Projeto.exceptions.BadRequestException;
 import com.example.Primeiro_Projeto.exceptions.ConflictException;
 import com.example.Primeiro_Projeto.exceptions.ResourceNotFoundException;
 import com.example.Primeiro_Projeto.model.Product;
 import com.example.Primeiro_Projeto.repositories.ProductRepository;
+import com.example.Primeiro_Projeto.repositories.ProductTombstoneRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.*;
 
 import java.util.List;
@@ -28,8 +33,18 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+
+    @Mock
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Mock
+    private ProductChangeTracker productChangeTracker;
+
+    @Mock
+    private CatalogGeneration catalogGeneration;
+
     @Mock
-    private ModelMapper modelMapper;
+    private CacheInvalidator cacheInvalidator;
 
     @InjectMocks
     private  ProductService productService;
@@ -45,8 +60,8 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
-        product1 = new Product(1L, "Product 1", 0.0, List.of());
-        product2 = new Product(2L, "Product 2", 0.0, List.of());
+        product1 = new Product(1L, "Product 1", 0.0, List.of(), null, 0);
+        product2 = new Product(2L, "Product 2", 0.0, List.of(), null, 0);
         request = new ProductRequestDTO("Novo Product", 0.0);
         requestUpdate = new ProductUpdateRequestDTO("Novo Product", 0.0);
         pageable = PageRequest.of(0, 4, Sort.by("asc", "sort"));
@@ -65,6 +80,8 @@ class ProductServiceTest {
         assertEquals("Product 2", result.get(1).getName());
 
         verify(productRepository).findAll();
+        verify(productRepository).countUsersOfAllProducts();
+        verify(productRepository, never()).countUsersByProductIds(any());
     }
 
     @Test
@@ -110,6 +127,74 @@ class ProductServiceTest {
         verify(productRepository).findAll(pageable);
     }
 
+    @Test
+    void deveRetornarPrimeiraPaginaComCursorSeExistiremMaisProducts() {
+        Slice<Product> productsSlice = new SliceImpl<>(List.of(product1, product2), PageRequest.of(0, 2), true);
+
+        when(productRepository.findAllBy(any(Pageable.class))).thenReturn(productsSlice);
+
+        CursorPageDTO<ProductResponseDTO> result = productService.getProductsByCursor("name", "asc", 2, null);
+
+        assertNotNull(result);
+        assertEquals(2, result.getSize());
+        assertTrue(result.isHasNext());
+        assertNotNull(result.getNextCursor());
+
+        KeysetCursor cursor = KeysetCursor.decode(result.getNextCursor(), "name", Sort.Direction.ASC);
+        assertEquals(2L, cursor.id());
+        assertEquals("Product 2", cursor.value());
+    }
+
+    @Test
+    void deveBuscarProximaPaginaAPartirDoCursor() {
+        String cursor = new KeysetCursor("price", Sort.Direction.DESC, 2L, "10.5").encode();
+        Slice<Product> productsSlice = new SliceImpl<>(List.of(product1), PageRequest.of(0, 2), false);
+
+        when(productRepository.findNextByPriceDesc(10.5, 2L, PageRequest.of(0, 2))).thenReturn(productsSlice);
+
+        CursorPageDTO<ProductResponseDTO> result = productService.getProductsByCursor("price", "desc", 2, cursor);
+
+        assertNotNull(result);
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        assertEquals("Product 1", result.getContent().get(0).getName());
+
+        verify(productRepository).findNextByPriceDesc(10.5, 2L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void deveLancarExcecaoSeCursorNaoCorresponderAoSort() {
+        String cursor = new KeysetCursor("id", Sort.Direction.ASC, 2L, null).encode();
+
+        assertThrows(BadRequestException.class, () -> productService.getProductsByCursor("name", "asc", 2, cursor));
+    }
+
+    @Test
+    void deveLancarExcecaoSeTamanhoDaPaginaPorCursorForInvalido() {
+        assertThrows(BadRequestException.class, () -> productService.getProductsByCursor("id", "asc", 0, null));
+        assertThrows(BadRequestException.class, () -> productService.getProductsByCursor("id", "asc", KeysetCursor.MAX_SIZE + 1, null));
+        assertThrows(BadRequestException.class, () -> productService.getUsersOfProduct(1L, Integer.MAX_VALUE, null));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void deveRetornarUsersDoProductAPartirDoCursor() {
+        String cursor = new KeysetCursor("id", Sort.Direction.ASC, 3L, null).encode();
+        Slice<UserFromProductDTO> usersSlice = new SliceImpl<>(List.of(new UserFromProductDTO(4L, "User 4")), PageRequest.of(0, 2), false);
+
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.findUsersOfProduct(1L, 3L, PageRequest.of(0, 2))).thenReturn(usersSlice);
+
+        CursorPageDTO<UserFromProductDTO> result = productService.getUsersOfProduct(1L, 2, cursor);
+
+        assertNotNull(result);
+        assertFalse(result.isHasNext());
+        assertEquals("User 4", result.getContent().get(0).getUsername());
+
+        verify(productRepository).findUsersOfProduct(1L, 3L, PageRequest.of(0, 2));
+    }
+
     @Test
     void deveRetornarUmProductAoBuscarProductPorIdEIdExistir() {
         when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
@@ -154,48 +239,45 @@ class ProductServiceTest {
 
     @Test
     void deveSalvarProductSeDadosForemValidos() {
-
-        when(modelMapper.map(request, Product.class)).thenReturn(new Product(null, "Novo Product", 0.0, List.of()));
         when(productRepository.existsByName("Novo Product")).thenReturn(false);
-        when(productRepository.save(any(Product.class))).thenReturn(new Product(1L, "Novo Product", 0.0, List.of()));
+        when(productRepository.save(any(Product.class))).thenReturn(new Product(1L, "Novo Product", 0.0, List.of(), null, 0));
 
         ProductResponseDTO result = productService.saveProduct(request);
 
         assertNotNull(result);
         assertEquals("Novo Product", result.getName());
 
-        verify(modelMapper).map(request, Product.class);
         verify(productRepository).existsByName("Novo Product");
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).save(argThat(saved -> saved.getId() == null && "Novo Product".equals(saved.getName())));
     }
 
     @Test
     void deveLancarExcecaoAoSalvarProductENameJaEstiverEmUso() {
-        when(modelMapper.map(request, Product.class)).thenReturn(new Product(null, "Novo Product", 0.0, List.of()));
         when(productRepository.existsByName("Novo Product")).thenReturn(true);
 
         ConflictException conflict = assertThrows(ConflictException.class, () -> productService.saveProduct(request));
 
         assertTrue(conflict.getMessage().contains("name"));
 
-        verify(modelMapper).map(request, Product.class);
         verify(productRepository).existsByName("Novo Product");
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
     void deveAtualizarProductSeDadosForemValidos() {
         when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
         when(productRepository.existsByNameAndIdNot("Novo Product", 1L)).thenReturn(false);
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> flushed(invocation.getArgument(0)));
 
         ProductResponseDTO result = productService.updateProduct(1L, requestUpdate);
 
         assertNotNull(result);
         assertEquals("Novo Product", result.getName());
+        assertEquals(1L, result.getVersion());
 
         verify(productRepository).findById(1L);
         verify(productRepository).existsByNameAndIdNot("Novo Product", 1L);
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -229,6 +311,16 @@ class ProductServiceTest {
 
         verify(productRepository).existsById(1L);
         verify(productRepository).deleteById(1L);
+        verify(productChangeTracker).recordDeletion(1L);
+    }
+
+    @Test
+    void deveLancarExcecaoSeParametrosDeAlteracoesForemInvalidos() {
+        assertThrows(BadRequestException.class, () -> productService.getChanges(-1, 10));
+        assertThrows(BadRequestException.class, () -> productService.getChanges(0, 0));
+        assertThrows(BadRequestException.class, () -> productService.getChanges(0, 1001));
+
+        verifyNoInteractions(productRepository, productTombstoneRepository);
     }
 
     @Test
@@ -239,4 +331,9 @@ class ProductServiceTest {
 
         verify(productRepository).existsById(999L);
     }
-}
\ No newline at end of file
+
+    private static Product flushed(Product product) {
+        product.setVersion(product.getVersion() == null ? 1L : product.getVersion() + 1);
+        return product;
+    }
+}
@@ -1,23 +1,34 @@
 package com.example.Primeiro_Projeto.services;
 
+import com.example.Primeiro_Projeto.config.CacheInvalidator;
+import com.example.Primeiro_Projeto.config.CatalogGeneration;
+import com.example.Primeiro_Projeto.dtos.CursorPageDTO;
+import com.example.Primeiro_Projeto.dtos.ProductFromUserDTO;
+import com.example.Primeiro_Projeto.dtos.ProductLinkBatchResponseDTO;
+import com.example.Primeiro_Projeto.dtos.ProductUnlinkBatchResponseDTO;
 import com.example.Primeiro_Projeto.dtos.UserResponseDTO;
 import com.example.Primeiro_Projeto.dtos.UserUpdateRequestDTO;
+import com.example.Primeiro_Projeto.exceptions.BadRequestException;
 import com.example.Primeiro_Projeto.exceptions.ConflictException;
 import com.example.Primeiro_Projeto.exceptions.ResourceNotFoundException;
 import com.example.Primeiro_Projeto.model.Product;
 import com.example.Primeiro_Projeto.model.Role;
 import com.example.Primeiro_Projeto.model.User;
+import com.example.Primeiro_Projeto.repositories.ProductLinkState;
 import com.example.Primeiro_Projeto.repositories.ProductRepository;
 import com.example.Primeiro_Projeto.repositories.UserRepository;
+import com.example.Primeiro_Projeto.security.TokenVersionRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +44,18 @@ class UserServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Mock
+    private CatalogGeneration catalogGeneration;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private ProductChangeTracker productChangeTracker;
+
     @InjectMocks
     private UserService userService;
 
@@ -48,10 +71,10 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
-        user1 = new User(1L, "User 1", "user1@email.com", "123456", List.of(Role.USER, Role.ADMIN), new ArrayList<>());
-        user2 = new User(2L, "User 2", "user2@email.com", "123456", List.of(Role.USER), new ArrayList<>());
-        product1 = new Product(1L, "Product 1", 0.0, new ArrayList<>());
-        product2 = new Product(2L, "Product 2", 0.0, new ArrayList<>());
+        user1 = new User(1L, "User 1", "user1@email.com", "123456", EnumSet.of(Role.USER, Role.ADMIN), new ArrayList<>(), 0, null);
+        user2 = new User(2L, "User 2", "user2@email.com", "123456", EnumSet.of(Role.USER), new ArrayList<>(), 0, null);
+        product1 = new Product(1L, "Product 1", 0.0, new ArrayList<>(), null, 0);
+        product2 = new Product(2L, "Product 2", 0.0, new ArrayList<>(), null, 0);
         requestUpdate = new UserUpdateRequestDTO("Novo User", "novo_user@email.com", "12345");
         pageable = PageRequest.of(0, 5, Sort.by("asc", "sort"));
     }
@@ -71,6 +94,8 @@ class UserServiceTest {
         assertEquals("user2@email.com", result.get(1).getEmail());
 
         verify(userRepository).findAllByOrderByIdAsc();
+        verify(userRepository).countProductsOfAllUsers();
+        verify(userRepository, never()).countProductsByUserIds(any());
     }
 
     @Test
@@ -116,6 +141,64 @@ class UserServiceTest {
         verify(userRepository).findAll(pageable);
     }
 
+    @Test
+    void deveRetornarPaginaDeUsersPorCursorSemConsultaDeCount() {
+        String cursor = new KeysetCursor("username", Sort.Direction.ASC, 1L, "User 1").encode();
+        Slice<User> usersSlice = new SliceImpl<>(List.of(user2), PageRequest.of(0, 1), true);
+
+        when(userRepository.findNextByUsernameAsc("User 1", 1L, PageRequest.of(0, 1))).thenReturn(usersSlice);
+
+        CursorPageDTO<UserResponseDTO> result = userService.getUsersByCursor("username", "asc", 1, cursor);
+
+        assertNotNull(result);
+        assertTrue(result.isHasNext());
+        assertEquals("User 2", result.getContent().get(0).getUsername());
+        assertEquals("User 2", KeysetCursor.decode(result.getNextCursor(), "username", Sort.Direction.ASC).value());
+
+        verify(userRepository).findNextByUsernameAsc("User 1", 1L, PageRequest.of(0, 1));
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void deveLancarExcecaoAoPaginarUsersPorCursorComSortNaoSuportado() {
+        assertThrows(BadRequestException.class, () -> userService.getUsersByCursor("email", "asc", 5, null));
+    }
+
+    @Test
+    void deveLancarExcecaoSeTamanhoDaPaginaPorCursorForInvalido() {
+        assertThrows(BadRequestException.class, () -> userService.getUsersByCursor("id", "asc", 0, null));
+        assertThrows(BadRequestException.class, () -> userService.getUsersByCursor("id", "asc", KeysetCursor.MAX_SIZE + 1, null));
+        assertThrows(BadRequestException.class, () -> userService.getProductsOfUser(1L, -1, null));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void deveRetornarPaginaDosProductsDoUserPelaTabelaDeAssociacao() {
+        Slice<ProductFromUserDTO> productsSlice = new SliceImpl<>(List.of(new ProductFromUserDTO(5L, "Product 5", 1.0)), PageRequest.of(0, 1), true);
+
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findProductsOfUser(1L, 0L, PageRequest.of(0, 1))).thenReturn(productsSlice);
+
+        CursorPageDTO<ProductFromUserDTO> result = userService.getProductsOfUser(1L, 1, null);
+
+        assertNotNull(result);
+        assertEquals("Product 5", result.getContent().get(0).getName());
+        assertEquals(5L, KeysetCursor.decode(result.getNextCursor(), "id", Sort.Direction.ASC).id());
+
+        verify(userRepository).findProductsOfUser(1L, 0L, PageRequest.of(0, 1));
+        verify(userRepository, never()).findById(1L);
+    }
+
+    @Test
+    void deveLancarExcecaoAoListarProductsDeUserInexistente() {
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getProductsOfUser(999L, 20, null));
+
+        verify(userRepository).existsById(999L);
+    }
+
     @Test
     void deveRetornarUmUserAoBuscarPorIdEIdExistir() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
@@ -143,7 +226,7 @@ class UserServiceTest {
     void deveAtualizarUserSeIdForValido() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(userRepository.existsByEmailAndIdNot("novo_user@email.com", 1L)).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user1);
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> flushed(invocation.getArgument(0)));
 
         UserResponseDTO result = userService.updateUser(1L, requestUpdate);
 
@@ -151,10 +234,11 @@ class UserServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("Novo User", result.getUsername());
         assertEquals("novo_user@email.com", result.getEmail());
+        assertEquals(1L, result.getVersion());
 
         verify(userRepository).findById(1L);
         verify(userRepository).existsByEmailAndIdNot("novo_user@email.com", 1L);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -181,23 +265,37 @@ class UserServiceTest {
 
     @Test
     void deveAdicionarOProductAoUserSeDadosForemValidos() {
-        user1.setProducts(new ArrayList<>());
-        product1.setUsers(new ArrayList<>());
-
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
-        when(userRepository.save(any(User.class))).thenReturn(user1);
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
+        when(userRepository.existsProductLink(1L, 1L)).thenReturn(false);
+        when(userRepository.insertProductLink(1L, 1L)).thenReturn(1);
+        when(userRepository.countProductsByUserId(1L)).thenReturn(1L);
 
         UserResponseDTO result = userService.addProductForUser(1L, 1L);
 
         assertNotNull(result);
-        assertEquals("Product 1", result.getProducts().get(0).getName());
+        assertEquals(1L, result.getProductCount());
 
         verify(userRepository).findById(1L);
         verify(productRepository).findById(1L);
-        verify(userRepository).save(any(User.class));
-        verify(productRepository).save(any(Product.class));
+        verify(userRepository).insertProductLink(1L, 1L);
+        verify(productChangeTracker).recordLinkChanges(List.of(1L));
+        verify(userRepository, never()).save(any(User.class));
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void deveLancarExcecaoAoAdicionarProductAoUserEBancoRejeitarLinkDuplicado() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+        when(userRepository.existsProductLink(1L, 1L)).thenReturn(false);
+        when(userRepository.insertProductLink(1L, 1L)).thenThrow(new DataIntegrityViolationException("uk_users_products_user_product"));
+
+        ConflictException conflict = assertThrows(ConflictException.class, () -> userService.addProductForUser(1L, 1L));
+
+        assertTrue(conflict.getMessage().contains(product1.getName()));
+
+        verify(userRepository).insertProductLink(1L, 1L);
     }
 
     @Test
@@ -230,10 +328,9 @@ class UserServiceTest {
         user1.setProducts(new ArrayList<>());
         product1.setUsers(new ArrayList<>());
 
-        user1.getProducts().add(product1);
-
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+        when(userRepository.existsProductLink(1L, 1L)).thenReturn(true);
 
         ConflictException conflict = assertThrows(ConflictException.class, () -> userService.addProductForUser(1L, 1L));
 
@@ -241,30 +338,25 @@ class UserServiceTest {
 
         verify(userRepository).findById(1L);
         verify(productRepository).findById(1L);
+        verify(userRepository, never()).insertProductLink(1L, 1L);
     }
 
     @Test
     void deveRemoverOProductDoUserSeDadosForemValidos() {
-        user1.setProducts(new ArrayList<>());
-        product1.setUsers(new ArrayList<>());
-
-        user1.getProducts().add(product1);
-        product1.getUsers().add(user1);
-
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
-        when(userRepository.save(any(User.class))).thenReturn(user1);
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
+        when(userRepository.deleteProductLink(1L, 1L)).thenReturn(1);
 
         UserResponseDTO result = userService.removeProductFromUser(1L, 1L);
 
         assertNotNull(result);
-        assertTrue(result.getProducts().isEmpty());
+        assertEquals(0L, result.getProductCount());
 
         verify(userRepository).findById(1L);
         verify(productRepository).findById(1L);
-        verify(userRepository).save(any(User.class));
-        verify(productRepository).save(any(Product.class));
+        verify(userRepository).deleteProductLink(1L, 1L);
+        verify(productChangeTracker).recordLinkChanges(List.of(1L));
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -305,6 +397,7 @@ class UserServiceTest {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+        when(userRepository.deleteProductLink(1L, 1L)).thenReturn(0);
 
         ConflictException conflict = assertThrows(ConflictException.class, () -> userService.removeProductFromUser(1L, 1L));
 
@@ -314,25 +407,93 @@ class UserServiceTest {
         verify(productRepository).findById(1L);
     }
 
+    @Test
+    void deveAdicionarProductsAoUserEmLoteEInformarOsIgnorados() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findProductLinkStates(eq(1L), anyCollection()))
+                .thenReturn(List.of(linkState(1L, false), linkState(2L, true), linkState(3L, false)));
+
+        ProductLinkBatchResponseDTO result = userService.addProductsForUser(1L, List.of(1L, 2L, 3L, 999L, 1L));
+
+        assertEquals(List.of(1L, 3L), result.getAdded());
+        assertEquals(List.of(2L), result.getAlreadyPresent());
+        assertEquals(List.of(999L), result.getMissing());
+
+        verify(userRepository).batchInsertProductLinks(1L, List.of(1L, 3L));
+        verify(productChangeTracker).recordLinkChanges(List.of(1L, 3L));
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void naoDeveInserirLinksQuandoTodosOsProductsJaEstiveremVinculados() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findProductLinkStates(eq(1L), anyCollection())).thenReturn(List.of(linkState(1L, true)));
+
+        ProductLinkBatchResponseDTO result = userService.addProductsForUser(1L, List.of(1L));
+
+        assertTrue(result.getAdded().isEmpty());
+        assertEquals(List.of(1L), result.getAlreadyPresent());
+
+        verify(userRepository, never()).batchInsertProductLinks(anyLong(), anyCollection());
+        verifyNoInteractions(productChangeTracker);
+    }
+
+    @Test
+    void deveLancarExcecaoAoAdicionarProductsEmLoteEBancoRejeitarLinkDuplicado() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findProductLinkStates(eq(1L), anyCollection())).thenReturn(List.of(linkState(1L, false)));
+        when(userRepository.batchInsertProductLinks(1L, List.of(1L))).thenThrow(new DataIntegrityViolationException("uk_users_products_user_product"));
+
+        assertThrows(ConflictException.class, () -> userService.addProductsForUser(1L, List.of(1L)));
+    }
+
+    @Test
+    void deveLancarExcecaoAoAdicionarProductsEmLoteEIdDoUserNaoExistir() {
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.addProductsForUser(999L, List.of(1L)));
+
+        verify(userRepository, never()).findProductLinkStates(anyLong(), anyCollection());
+    }
+
+    @Test
+    void deveRemoverProductsDoUserEmLoteEInformarOsIgnorados() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findProductLinkStates(eq(1L), anyCollection()))
+                .thenReturn(List.of(linkState(1L, true), linkState(2L, false)));
+
+        ProductUnlinkBatchResponseDTO result = userService.removeProductsFromUser(1L, List.of(1L, 2L, 999L));
+
+        assertEquals(List.of(1L), result.getRemoved());
+        assertEquals(List.of(2L), result.getNotPresent());
+        assertEquals(List.of(999L), result.getMissing());
+
+        verify(userRepository).deleteProductLinks(1L, List.of(1L));
+        verify(productChangeTracker).recordLinkChanges(List.of(1L));
+    }
+
     @Test
     void deveAtualizarUserParaAdminSeDadosForemValidos() {
-        user1.setRoles(new ArrayList<>());
+        user1.setRoles(EnumSet.noneOf(Role.class));
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
-        when(userRepository.save(any(User.class))).thenReturn(user1);
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> flushed(invocation.getArgument(0)));
 
         UserResponseDTO result = userService.promoteToAdmin(1L);
 
         assertNotNull(result);
-        assertEquals("ADMIN", result.getRoles().get(0).getAuthority());
+        assertEquals(EnumSet.of(Role.ADMIN), result.getRoles());
+        assertEquals(1, user1.getTokenVersion());
+        assertEquals(1L, result.getVersion());
 
         verify(userRepository).findById(1L);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(tokenVersionRegistry).update(1L, 1);
     }
 
     @Test
     void deveLancarExcecaoAoAtualizarUserParaAdminEIdNaoExistir() {
-        user1.setRoles(new ArrayList<>());
+        user1.setRoles(EnumSet.noneOf(Role.class));
 
         when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
@@ -343,7 +504,7 @@ class UserServiceTest {
 
     @Test
     void deveLancarExcecaoAoAtualizarUserParaAdminEEleJaForAdmin() {
-        user1.setRoles(new ArrayList<>());
+        user1.setRoles(EnumSet.noneOf(Role.class));
 
         user1.getRoles().add(Role.ADMIN);
 
@@ -358,25 +519,28 @@ class UserServiceTest {
 
     @Test
     void deveRemoverUserDeAdminSeDadosForemValidos() {
-        user1.setRoles(new ArrayList<>());
+        user1.setRoles(EnumSet.noneOf(Role.class));
 
         user1.getRoles().add(Role.ADMIN);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
-        when(userRepository.save(any(User.class))).thenReturn(user1);
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> flushed(invocation.getArgument(0)));
 
         UserResponseDTO result = userService.removeFromAdmin(1L);
 
         assertNotNull(result);
         assertTrue(result.getRoles().isEmpty());
+        assertEquals(1, user1.getTokenVersion());
+        assertEquals(1L, result.getVersion());
 
         verify(userRepository).findById(1L);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(tokenVersionRegistry).update(1L, 1);
     }
 
     @Test
     void deveLancarExcecaoAoRemoverUserDeAdminEIdNaoExistir() {
-        user1.setRoles(new ArrayList<>());
+        user1.setRoles(EnumSet.noneOf(Role.class));
 
         user1.getRoles().add(Role.ADMIN);
 
@@ -389,7 +553,7 @@ class UserServiceTest {
 
     @Test
     void deveLancarExcecaoAoRemoverUserDeAdminEEleNaoForAdmin() {
-        user1.setRoles(new ArrayList<>());
+        user1.setRoles(EnumSet.noneOf(Role.class));
 
         user1.getRoles().add(Role.ADMIN);
 
@@ -407,12 +571,14 @@ class UserServiceTest {
     @Test
     void deveRemoverUserPorIdSeIdExistir() {
         when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findProductIdsByUserId(1L)).thenReturn(List.of(1L, 2L));
         doNothing().when(userRepository).deleteById(1L);
 
         userService.removeUser(1L);
 
         verify(userRepository).existsById(1L);
         verify(userRepository).deleteById(1L);
+        verify(productChangeTracker).recordLinkChanges(List.of(1L, 2L));
     }
 
     @Test
@@ -423,4 +589,23 @@ class UserServiceTest {
 
         verify(userRepository).existsById(999L);
     }
-}
\ No newline at end of file
+
+    private ProductLinkState linkState(Long id, boolean linked) {
+        return new ProductLinkState() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public boolean getLinked() {
+                return linked;
+            }
+        };
+    }
+
+    private static User flushed(User user) {
+        user.setVersion(user.getVersion() == null ? 1L : user.getVersion() + 1);
+        return user;
+    }
+}